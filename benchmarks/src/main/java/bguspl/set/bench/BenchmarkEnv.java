@@ -0,0 +1,68 @@
+package bguspl.set.bench;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.UtilImpl;
+
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds game environments for the benchmarks: no user interface, no logging and no table delays.
+ */
+final class BenchmarkEnv {
+
+    private BenchmarkEnv() {}
+
+    static Config config(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("LogLevel", Level.OFF.getName());
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        properties.put("TableDelaySeconds", "0");
+        properties.put("PlayerKeys1", "");
+        properties.put("PlayerKeys2", "");
+        return new Config(Logger.getLogger("benchmark"), properties);
+    }
+
+    static Env env(int featureSize, int featureCount) {
+        Config config = config(featureSize, featureCount);
+        return new Env(Logger.getLogger("benchmark"), config, new NoUserInterface(), new UtilImpl(config));
+    }
+
+    /**
+     * A user interface that draws nothing.
+     */
+    static class NoUserInterface implements UserInterface {
+        @Override
+        public void placeCard(int card, int slot) {}
+        @Override
+        public void placeCards(int[] cards, int[] slots) {}
+        @Override
+        public void removeCard(int slot) {}
+        @Override
+        public void removeCards() {}
+        @Override
+        public void placeToken(int player, int slot) {}
+        @Override
+        public void removeTokens() {}
+        @Override
+        public void removeTokens(int slot) {}
+        @Override
+        public void removeToken(int player, int slot) {}
+        @Override
+        public void setCountdown(long millies, boolean warn) {}
+        @Override
+        public void setElapsed(long millies) {}
+        @Override
+        public void setFreeze(int player, long millies) {}
+        @Override
+        public void setScore(int player, int score) {}
+        @Override
+        public void announceWinner(int[] players) {}
+        @Override
+        public void dispose() {}
+    }
+}
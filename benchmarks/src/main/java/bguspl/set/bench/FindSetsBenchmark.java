@@ -0,0 +1,89 @@
+package bguspl.set.bench;
+
+import bguspl.set.Config;
+import bguspl.set.UtilImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of searching a deck for sets, through both the boxed and the primitive Util API.
+ * The default parameters include decks large enough for the parallel search (256 cards or more); a quicker run can be
+ * selected on the command line (e.g. -p featureCount=4 -p cards=12,81).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FindSetsBenchmark {
+
+    @Param({"3", "4"})
+    int featureSize;
+
+    @Param({"4", "6"})
+    int featureCount;
+
+    /**
+     * The number of cards searched: a table, the classic deck, and a deck large enough to be searched in parallel.
+     * Capped by the deck size, and at MAX_CARDS_FOR_LARGER_SETS for sets of 4 or more cards (a search of more takes
+     * minutes).
+     */
+    @Param({"12", "81", "729"})
+    int cards;
+
+    /**
+     * The maximum number of sets to find: the dealer's "any set left?" check and the hints listing.
+     */
+    @Param({"1", "2147483647"})
+    int count;
+
+    private static final int MAX_CARDS_FOR_LARGER_SETS = 256;
+
+    private UtilImpl util;
+    private List<Integer> deckList;
+    private int[] deck;
+    private int[] sets;
+
+    @Setup
+    public void setUp() {
+        Config config = BenchmarkEnv.config(featureSize, featureCount);
+        util = new UtilImpl(config);
+
+        List<Integer> all = new ArrayList<>();
+        for (int card = 0; card < config.deckSize; card++)
+            all.add(card);
+        Collections.shuffle(all, new Random(42));
+        int size = Math.min(cards, all.size());
+        if (featureSize > 3)
+            size = Math.min(size, MAX_CARDS_FOR_LARGER_SETS);
+        deckList = new ArrayList<>(all.subList(0, size));
+        deck = deckList.stream().mapToInt(Integer::intValue).toArray();
+        sets = new int[64 * featureSize];
+    }
+
+    @Benchmark
+    public List<int[]> findSetsList() {
+        return util.findSets(deckList, count);
+    }
+
+    @Benchmark
+    public int findSetsPrimitive() {
+        return util.findSets(deck, deck.length, count, sets);
+    }
+}
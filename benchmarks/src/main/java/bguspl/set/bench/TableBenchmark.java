@@ -0,0 +1,79 @@
+package bguspl.set.bench;
+
+import bguspl.set.Env;
+import bguspl.set.ex.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of dealing a full table and clearing it again (with tableDelayMillis = 0), card by card and in one batch,
+ * including the upkeep of the table's set index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TableBenchmark {
+
+    @Param({"3", "4"})
+    int featureSize;
+
+    @Param({"4", "6"})
+    int featureCount;
+
+    private Env env;
+    private Table table;
+    private int[] cards;
+    private int[] slots;
+
+    @Setup
+    public void setUp() {
+        env = BenchmarkEnv.env(featureSize, featureCount);
+        table = new Table(env);
+
+        // distinct random cards, one per slot
+        Random random = new Random(42);
+        cards = new int[env.config.tableSize];
+        slots = new int[env.config.tableSize];
+        boolean[] used = new boolean[env.config.deckSize];
+        for (int slot = 0; slot < cards.length; slot++) {
+            int card;
+            do card = random.nextInt(env.config.deckSize); while (used[card]);
+            used[card] = true;
+            cards[slot] = card;
+            slots[slot] = slot;
+        }
+    }
+
+    @Benchmark
+    public int placeAndRemoveCards() {
+        for (int slot = 0; slot < cards.length; slot++)
+            table.placeCard(cards[slot], slot);
+        int sets = table.setCount();
+        for (int slot = 0; slot < cards.length; slot++)
+            table.removeCard(slot);
+        return sets;
+    }
+
+    @Benchmark
+    public int placeCardsAndClearTable() {
+        table.placeCards(cards, slots);
+        int sets = table.setCount();
+        table.clearTable();
+        return sets;
+    }
+}
@@ -0,0 +1,82 @@
+package bguspl.set.bench;
+
+import bguspl.set.Config;
+import bguspl.set.UtilImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of testing a single candidate set and of decoding card features.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UtilBenchmark {
+
+    @Param({"3", "4"})
+    int featureSize;
+
+    @Param({"4", "6"})
+    int featureCount;
+
+    private UtilImpl util;
+
+    /**
+     * Random candidates (featureSize cards each), cycled through so that the branches do not become predictable.
+     */
+    private int[][] candidates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Config config = BenchmarkEnv.config(featureSize, featureCount);
+        util = new UtilImpl(config);
+
+        Random random = new Random(42);
+        candidates = new int[1024][featureSize];
+        for (int[] candidate : candidates)
+            for (int i = 0; i < candidate.length; i++)
+                candidate[i] = random.nextInt(config.deckSize);
+
+        // make every other candidate a legal set, so both outcomes are measured
+        for (int i = 0; i < candidates.length; i += 2) {
+            int[] features = util.cardToFeatures(candidates[i][0]);
+            for (int j = 0; j < featureSize; j++) {
+                int card = 0;
+                for (int feature : features)
+                    card = card * featureSize + (feature + j) % featureSize;
+                candidates[i][j] = card;
+            }
+        }
+    }
+
+    private int[] nextCandidate() {
+        next = (next + 1) & (candidates.length - 1);
+        return candidates[next];
+    }
+
+    @Benchmark
+    public boolean testSet() {
+        return util.testSet(nextCandidate());
+    }
+
+    @Benchmark
+    public int[][] cardsToFeatures() {
+        return util.cardsToFeatures(nextCandidate());
+    }
+}
@@ -0,0 +1,123 @@
+package bguspl.set;
+
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * The images of the cards, decoded on demand by a background thread and kept in a bounded least-recently-used
+ * cache, so that neither the time to open the window nor the memory held grows with the size of the deck.
+ */
+final class CardImageCache {
+
+    private final Logger logger;
+
+    /**
+     * Decodes the image of a card (called on the background thread).
+     */
+    private final IntFunction<BufferedImage> decoder;
+
+    /**
+     * Called on the background thread with each card whose image was decoded.
+     */
+    private final IntConsumer loaded;
+
+    /**
+     * The decoded images, least recently used first (guarded by itself).
+     */
+    private final Map<Integer, BufferedImage> images;
+
+    /**
+     * The cards whose images are being decoded or waiting to be.
+     */
+    private final Set<Integer> loading = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService executor;
+
+    /**
+     * @param logger   - the logger.
+     * @param capacity - the maximal number of images kept.
+     * @param decoder  - decodes the image of a card.
+     * @param loaded   - called with each card whose image was decoded.
+     */
+    CardImageCache(Logger logger, int capacity, IntFunction<BufferedImage> decoder, IntConsumer loaded) {
+        this.logger = logger;
+        this.decoder = decoder;
+        this.loaded = loaded;
+        images = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+                return size() > capacity;
+            }
+        };
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "card-images");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param card - the card.
+     * @return - the image of the card, or null if it is not decoded yet (it will be, and the listener called).
+     */
+    BufferedImage get(int card) {
+        BufferedImage image;
+        synchronized (images) {
+            image = images.get(card);
+        }
+        if (image == null)
+            load(card);
+        return image;
+    }
+
+    /**
+     * Starts decoding the image of a card that is likely to be needed soon, unless it is cached already.
+     *
+     * @param card - the card.
+     */
+    void prefetch(int card) {
+        synchronized (images) {
+            if (images.containsKey(card)) // does not count as a use
+                return;
+        }
+        load(card);
+    }
+
+    private void load(int card) {
+        if (!loading.add(card))
+            return;
+        try {
+            executor.execute(() -> {
+                try {
+                    BufferedImage image = decoder.apply(card);
+                    synchronized (images) {
+                        images.put(card, image);
+                    }
+                    loaded.accept(card);
+                } catch (RuntimeException e) {
+                    logger.severe("cannot load the image of card " + card + ": " + e);
+                } finally {
+                    loading.remove(card);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(card); // shut down
+        }
+    }
+
+    /**
+     * Stops decoding images.
+     */
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
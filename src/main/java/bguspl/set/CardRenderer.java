@@ -0,0 +1,139 @@
+package bguspl.set;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws card images from the features of the cards, for decks that have no picture files.
+ * The first four features are drawn as the number, color, shape and fill of the symbols on the card, like on the
+ * classic cards; any further features are written as digits at the bottom of the card.
+ */
+final class CardRenderer {
+
+    private final Config config;
+    private final Util util;
+
+    /**
+     * The color of each value of the color feature (spread evenly around the color wheel).
+     */
+    private final Color[] colors;
+
+    CardRenderer(Config config, Util util) {
+        this.config = config;
+        this.util = util;
+        colors = new Color[config.featureSize];
+        for (int value = 0; value < colors.length; value++)
+            colors[value] = Color.getHSBColor((float) value / colors.length, 0.85f, 0.75f);
+    }
+
+    /**
+     * @param card - the card.
+     * @return - the image of the card, the size of a cell.
+     */
+    BufferedImage render(int card) {
+        int[] features = util.cardToFeatures(card);
+        int count = feature(features, 0) + 1;
+        Color color = colors[feature(features, 1)];
+        int shape = feature(features, 2);
+        int fill = feature(features, 3);
+
+        int width = config.cellWidth, height = config.cellHeight;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // the card
+        int margin = Math.max(Math.min(width, height) / 20, 2);
+        g.setColor(Color.WHITE);
+        g.fillRoundRect(margin, margin, width - 2 * margin, height - 2 * margin, 4 * margin, 4 * margin);
+        g.setColor(Color.GRAY);
+        g.drawRoundRect(margin, margin, width - 2 * margin, height - 2 * margin, 4 * margin, 4 * margin);
+
+        // the symbols, side by side
+        int extra = features.length > 4 ? height / 6 : 0;
+        int inner = width - 4 * margin;
+        int slot = inner / count;
+        int symbolWidth = Math.max(Math.min(slot - margin, inner / 3), 2);
+        int symbolHeight = Math.max(height - 6 * margin - extra, 2);
+        int top = 3 * margin;
+        g.setStroke(new BasicStroke(Math.max(margin / 2f, 1f)));
+        for (int i = 0; i < count; i++) {
+            int left = 2 * margin + i * slot + (slot - symbolWidth) / 2;
+            Shape symbol = symbol(shape, left, top, symbolWidth, symbolHeight);
+            fill(g, symbol, color, fill);
+            g.setColor(color);
+            g.draw(symbol);
+        }
+
+        // the features that have no drawing of their own
+        if (extra > 0) {
+            StringBuilder digits = new StringBuilder();
+            for (int i = 4; i < features.length; i++)
+                digits.append(Character.forDigit(features[i], Character.MAX_RADIX));
+            g.setColor(Color.DARK_GRAY);
+            g.setFont(new Font(Font.MONOSPACED, Font.BOLD, extra));
+            int textWidth = g.getFontMetrics().stringWidth(digits.toString());
+            g.drawString(digits.toString(), (width - textWidth) / 2, height - 2 * margin);
+        }
+
+        g.dispose();
+        return image;
+    }
+
+    private static int feature(int[] features, int index) {
+        return index < features.length ? features[index] : 0;
+    }
+
+    /**
+     * The outline of a symbol: an oval, or a polygon with more corners for each further value.
+     */
+    private static Shape symbol(int shape, int left, int top, int width, int height) {
+        if (shape == 0)
+            return new Ellipse2D.Double(left, top, width, height);
+        if (shape == 1) {
+            Polygon diamond = new Polygon();
+            diamond.addPoint(left + width / 2, top);
+            diamond.addPoint(left + width, top + height / 2);
+            diamond.addPoint(left + width / 2, top + height);
+            diamond.addPoint(left, top + height / 2);
+            return diamond;
+        }
+        int corners = shape + 1;
+        Polygon polygon = new Polygon();
+        for (int i = 0; i < corners; i++) {
+            double angle = -Math.PI / 2 + 2 * Math.PI * i / corners;
+            polygon.addPoint((int) Math.round(left + width / 2.0 + width / 2.0 * Math.cos(angle)),
+                    (int) Math.round(top + height / 2.0 + height / 2.0 * Math.sin(angle)));
+        }
+        return polygon;
+    }
+
+    /**
+     * Fills a symbol: solid, empty, striped, or (for further values) shaded ever lighter.
+     */
+    private void fill(Graphics2D g, Shape symbol, Color color, int fill) {
+        if (fill == 0) {
+            g.setColor(color);
+            g.fill(symbol);
+        } else if (fill == 2) {
+            Rectangle2D bounds = symbol.getBounds2D();
+            g.setClip(symbol);
+            g.setColor(color);
+            for (double y = bounds.getMinY(); y < bounds.getMaxY(); y += Math.max(bounds.getHeight() / 12, 3))
+                g.drawLine((int) bounds.getMinX(), (int) y, (int) bounds.getMaxX(), (int) y);
+            g.setClip(null);
+        } else if (fill > 2) {
+            int alpha = 255 * (config.featureSize - fill) / config.featureSize;
+            g.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), Math.max(alpha, 40)));
+            g.fill(symbol);
+        }
+    }
+}
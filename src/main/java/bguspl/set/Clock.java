@@ -0,0 +1,41 @@
+package bguspl.set;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * This interface is the source of game time: every countdown, freeze and delay of the game is measured and waited for
+ * through it.
+ */
+public interface Clock {
+
+    /**
+     * Returns the current game time.
+     * @return - the current time in milliseconds.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Sleep for the specified game time.
+     * @param millis - the time to sleep in milliseconds.
+     * @throws InterruptedException - if the sleeping thread was interrupted.
+     */
+    void sleep(long millis) throws InterruptedException;
+
+    /**
+     * Retrieve and remove the head of the queue, waiting up to the specified game time for an element to arrive.
+     * @param queue   - the queue to take from.
+     * @param timeout - the longest time to wait in milliseconds (Long.MAX_VALUE to wait until an element arrives).
+     * @return - the head of the queue, or null if the timeout elapsed first.
+     * @throws InterruptedException - if the waiting thread was interrupted.
+     */
+    <E> E poll(BlockingQueue<E> queue, long timeout) throws InterruptedException;
+
+    /**
+     * Run a task on an executor once the specified game time has passed, without blocking any thread meanwhile.
+     * @param executor - the executor to run the task on (the task is dropped if the executor was shut down).
+     * @param task     - the task.
+     * @param millis   - the time to wait in milliseconds.
+     */
+    void schedule(ScheduledExecutorService executor, Runnable task, long millis);
+}
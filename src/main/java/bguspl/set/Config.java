@@ -36,6 +36,11 @@ public class Config {
      */
     public final int deckSize;
 
+    /**
+     * The seed for shuffling the deck (null for a different order in every game)
+     */
+    public final Long deckSeed;
+
     /**
      * The number of human players in the game.
      */
@@ -46,6 +51,24 @@ public class Config {
      */
     public final int computerPlayers;
 
+    /**
+     * How computer players choose their key presses: random, greedy (finds a set and claims it) or human (like greedy,
+     * but takes a reaction time to spot each set)
+     */
+    public final String botStrategy;
+
+    /**
+     * The mean and standard deviation of the time (in milliseconds) a human-like computer player takes to spot a set
+     */
+    public final long botReactionMillis;
+    public final long botReactionDeviationMillis;
+
+    /**
+     * How player and computer player loops run: platform (a thread each), virtual (a virtual thread each, Java 21) or
+     * pooled (computer players share a thread pool)
+     */
+    public final String threadModel;
+
     /**
      * The total number of players (human + computer) in the game
      */
@@ -76,6 +99,11 @@ public class Config {
      */
     public final long pointFreezeMillis;
 
+    /**
+     * The number of milliseconds between refreshes of a frozen player's countdown display
+     */
+    public final long freezeTickMillis;
+
     /**
      * The number of milliseconds to delay before removing/placing a card on the table
      */
@@ -132,6 +160,22 @@ public class Config {
      */
     public final int fontSize;
 
+    /**
+     * The number of times per second pending changes are drawn on the screen (at least 1)
+     */
+    public final int frameRate;
+
+    /**
+     * The number of card images kept in memory (at least enough for the table and the cards to be dealt next)
+     */
+    public final int cardCacheSize;
+
+    /**
+     * Where the card images come from: png (the picture files), drawn (drawn from the features of the cards) or auto
+     * (the picture files if there are files for this deck, drawn otherwise)
+     */
+    public final String cardImages;
+
     /**
      * The scancodes of the keyboard input data for each player
      * Notes:
@@ -197,16 +241,23 @@ public class Config {
         featureSize = Integer.parseInt(properties.getProperty("FeatureSize", "3"));
         featureCount = Integer.parseInt(properties.getProperty("FeatureCount", "4"));
         deckSize = (int) Math.pow(featureSize, featureCount);
+        String seed = properties.getProperty("DeckSeed", "").trim();
+        deckSeed = seed.isEmpty() ? null : Long.parseLong(seed);
 
         // gameplay settings
         humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
         computerPlayers = Integer.parseInt(properties.getProperty("ComputerPlayers", "0"));
+        botStrategy = properties.getProperty("BotStrategy", "random").trim().toLowerCase();
+        botReactionMillis = (long) (Double.parseDouble(properties.getProperty("BotReactionSeconds", "2")) * 1000.0);
+        botReactionDeviationMillis = (long) (Double.parseDouble(properties.getProperty("BotReactionDeviationSeconds", "0.5")) * 1000.0);
+        threadModel = properties.getProperty("ThreadModel", "platform").trim().toLowerCase();
         players = humanPlayers + computerPlayers;
 
         hints = Boolean.parseBoolean(properties.getProperty("Hints", "False"));
         turnTimeoutMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutSeconds", "60")) * 1000.0);
          turnTimeoutWarningMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutWarningSeconds", "5")) * 1000.0);
         pointFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PointFreezeSeconds", "1")) * 1000.0);
+        freezeTickMillis = Math.max((long) (Double.parseDouble(properties.getProperty("FreezeTickSeconds", "1")) * 1000.0), 1);
         penaltyFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PenaltyFreezeSeconds", "3")) * 1000.0);
         tableDelayMillis = (long) (Double.parseDouble(properties.getProperty("TableDelaySeconds", "0.1")) * 1000.0);
         endGamePauseMillies = (long) (Double.parseDouble(properties.getProperty("EndGamePauseSeconds", "5")) * 1000.0);
@@ -224,6 +275,9 @@ public class Config {
         playerCellWidth = Integer.parseInt(properties.getProperty("PlayerCellWidth", "300"));
         playerCellHeight = Integer.parseInt(properties.getProperty("PlayerCellHeight", "40"));
         fontSize = Integer.parseInt(properties.getProperty("FontSize", "40"));
+        frameRate = Math.max(Integer.parseInt(properties.getProperty("FrameRate", "60")), 1);
+        cardImages = properties.getProperty("CardImages", "auto").trim().toLowerCase();
+        cardCacheSize = Math.max(Integer.parseInt(properties.getProperty("CardCacheSize", "48")), tableSize + featureSize);
 
         // keyboard input data
         playerKeys = new int[players][rows * columns];
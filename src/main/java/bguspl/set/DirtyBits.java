@@ -0,0 +1,68 @@
+package bguspl.set;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of indices (slots or players) that changed since they were last drawn. Any thread may mark an index, and
+ * marking it again before it was drained has no further effect; the drawing thread drains the whole set at once.
+ */
+final class DirtyBits {
+
+    /**
+     * One bit per index.
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * The number of indices.
+     */
+    private final int size;
+
+    DirtyBits(int size) {
+        this.size = size;
+        words = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    /**
+     * Marks an index as changed.
+     */
+    void mark(int index) {
+        long bit = 1L << index;
+        int word = index >>> 6;
+        long current;
+        do {
+            current = words.get(word);
+            if ((current & bit) != 0)
+                return;
+        } while (!words.compareAndSet(word, current, current | bit));
+    }
+
+    /**
+     * Marks every index as changed.
+     */
+    void markAll() {
+        for (int word = 0; word < words.length(); word++) {
+            int bits = Math.min(size - (word << 6), 64);
+            words.set(word, bits == 64 ? -1L : (1L << bits) - 1);
+        }
+    }
+
+    /**
+     * Unmarks every index that was marked, and passes it to the action (in increasing order).
+     *
+     * @return - true iff any index was marked.
+     */
+    boolean drain(IntConsumer action) {
+        boolean any = false;
+        for (int word = 0; word < words.length(); word++) {
+            if (words.get(word) == 0)
+                continue;
+            long bits = words.getAndSet(word, 0);
+            any |= bits != 0;
+            for (; bits != 0; bits &= bits - 1)
+                action.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+        }
+        return any;
+    }
+}
@@ -37,14 +37,20 @@ class InputManager extends KeyAdapter {
         keyToSlot = Arrays.copyOf(keyToSlot, keyCode + 1);
     }
 
+    /**
+     * Runs on the event dispatch thread: the press is timestamped and handed to the player without blocking, so a
+     * frozen player or a busy dealer never holds up the input and repaints of the others.
+     */
     @Override
     public void keyPressed(KeyEvent e) {
+        long timeNanos = System.nanoTime();
         // dispatch the key event to the player according to the key map
         int keyCode = e.getKeyCode();
+        if (keyCode < 0 || keyCode >= keyMap.length) return; // not a key of any player
         int player = keyMap[keyCode] - 1;
         if (player >= 0){
-            logger.severe("key " + keyCode + " was pressed by player " + (player + 1));
-            players[player].keyPressed(keyToSlot[keyCode]);
+            boolean queued = players[player].keyPressed(keyToSlot[keyCode], timeNanos);
+            logger.severe("key " + keyCode + " was pressed by player " + (player + 1) + (queued ? "" : " (dropped)"));
         }
     }
 }
@@ -0,0 +1,87 @@
+package bguspl.set;
+
+import java.util.Arrays;
+
+/**
+ * A min-heap of longs, kept in a growing array so that the values are never boxed.
+ */
+final class LongHeap {
+
+    /**
+     * The values, each one no larger than its children (the children of i are at 2i+1 and 2i+2).
+     */
+    private long[] values = new long[8];
+
+    /**
+     * The number of values in the heap.
+     */
+    private int size;
+
+    /**
+     * @return - true iff the heap holds no values.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return - the smallest value (the heap must not be empty).
+     */
+    long peek() {
+        return values[0];
+    }
+
+    /**
+     * Adds a value (values may repeat).
+     */
+    void add(long value) {
+        if (size == values.length)
+            values = Arrays.copyOf(values, 2 * size);
+        siftUp(size++, value);
+    }
+
+    /**
+     * Removes one occurrence of a value.
+     *
+     * @return - true iff the value was in the heap.
+     */
+    boolean remove(long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] != value)
+                continue;
+            long last = values[--size];
+            if (i < size) {
+                siftDown(i, last);
+                if (values[i] == last)
+                    siftUp(i, last);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void siftUp(int i, long value) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (values[parent] <= value)
+                break;
+            values[i] = values[parent];
+            i = parent;
+        }
+        values[i] = value;
+    }
+
+    private void siftDown(int i, long value) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && values[child + 1] < values[child])
+                child++;
+            if (value <= values[child])
+                break;
+            values[i] = values[child];
+            i = child;
+        }
+        values[i] = value;
+    }
+}
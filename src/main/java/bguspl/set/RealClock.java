@@ -0,0 +1,35 @@
+package bguspl.set;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The wall clock: game time is the system time.
+ */
+public class RealClock implements Clock {
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @Override
+    public <E> E poll(BlockingQueue<E> queue, long timeout) throws InterruptedException {
+        return timeout == Long.MAX_VALUE ? queue.take() : queue.poll(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor, Runnable task, long millis) {
+        try {
+            executor.schedule(task, millis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Runs complete games headless (no Swing, no logging, no delays) with computer players only, and reports the
+ * throughput and latency of the game engine.
+ * <p>
+ * Usage: {@code java -cp <classpath> bguspl.set.Simulation [Games=100] [Clock=virtual|real] [Key=Value ...]}, where
+ * every other key is a configuration property overriding the simulation defaults (e.g. ComputerPlayers=8
+ * FeatureCount=4). On the virtual clock (the default) timeouts, freezes and delays are fast-forwarded, so games with
+ * real timings (e.g. TurnTimeoutSeconds=60 PenaltyFreezeSeconds=3) still run in milliseconds.
+ */
+public class Simulation {
+
+    /**
+     * The configuration the simulation runs with unless overridden on the command line.
+     */
+    private static final String[][] defaults = {
+            {"LogLevel", "OFF"},
+            {"HumanPlayers", "0"},
+            {"ComputerPlayers", "4"},
+            {"TurnTimeoutSeconds", "-1"},
+            {"PointFreezeSeconds", "0"},
+            {"PenaltyFreezeSeconds", "0"},
+            {"TableDelaySeconds", "0"},
+            {"EndGamePauseSeconds", "0"},
+            {"PlayerKeys1", ""},
+            {"PlayerKeys2", ""}};
+
+    /**
+     * How long the dealer waits for claims in real time before the virtual clock fast-forwards.
+     */
+    private static final long VIRTUAL_POLL_MILLIS = 1;
+
+    /**
+     * The verdicts of the dealer: legal sets and claim latencies (written by the dealer thread of the running game).
+     */
+    private long sets;
+    private final long[] rejected = new long[Player.Rejection.values().length];
+    private long[] latencies = new long[1024];
+    private int claims;
+
+    private synchronized void verdict(int player, boolean legal, long latencyNanos) {
+        if (legal) sets++;
+        if (claims == latencies.length) latencies = Arrays.copyOf(latencies, claims * 2);
+        latencies[claims++] = latencyNanos;
+    }
+
+    /**
+     * Runs a single game to its end.
+     *
+     * @return - the duration of the game in nanoseconds.
+     */
+    private long playGame(Logger logger, Config config, Util util, boolean virtual) throws InterruptedException {
+        Clock clock = virtual ? new VirtualClock(0, VIRTUAL_POLL_MILLIS) : new RealClock();
+        Env env = new Env(logger, config, new HeadlessUserInterface(), util, clock);
+        Player[] players = new Player[config.players];
+        Table table = new Table(env);
+        Dealer dealer = new Dealer(env, table, players);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, false);
+        dealer.setClaimListener(this::verdict);
+
+        long start = System.nanoTime();
+        Thread dealerThread = new Thread(dealer, "dealer");
+        dealerThread.start();
+        dealerThread.join();
+        long duration = System.nanoTime() - start;
+        for (Player player : players)
+            for (Player.Rejection reason : Player.Rejection.values())
+                rejected[reason.ordinal()] += player.rejected(reason);
+        return duration;
+    }
+
+    private static long percentile(long[] sorted, int length, double p) {
+        if (length == 0) return 0;
+        return sorted[Math.max((int) Math.ceil(p * length) - 1, 0)];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3fms", nanos / 1e6);
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1fus", nanos / 1e3);
+    }
+
+    /**
+     * The simulation's main function.
+     *
+     * @param args - Games=N and configuration overrides, as Key=Value pairs.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Properties properties = new Properties();
+        for (String[] entry : defaults)
+            properties.setProperty(entry[0], entry[1]);
+        for (String arg : args) {
+            String[] entry = arg.split("=", 2);
+            if (entry.length != 2)
+                throw new IllegalArgumentException("expected Key=Value, got: " + arg);
+            properties.setProperty(entry[0].trim(), entry[1].trim());
+        }
+        int games = Integer.parseInt(properties.getProperty("Games", "100"));
+        boolean virtual = !properties.getProperty("Clock", "virtual").equalsIgnoreCase("real");
+        properties.setProperty("HumanPlayers", "0"); // nobody is at the keyboard
+
+        Logger logger = Logger.getLogger("SetGameSimulation");
+        logger.setUseParentHandlers(false);
+        Config config = new Config(logger, properties);
+        Util util = new UtilImpl(config);
+
+        Simulation simulation = new Simulation();
+        long[] durations = new long[games];
+        long start = System.nanoTime();
+        for (int game = 0; game < games; game++)
+            durations[game] = simulation.playGame(logger, config, util, virtual);
+        long total = System.nanoTime() - start;
+
+        double seconds = total / 1e9;
+        long[] latencies = Arrays.copyOf(simulation.latencies, simulation.claims);
+        Arrays.sort(latencies);
+        Arrays.sort(durations);
+
+        System.out.println("games: " + games + " with " + config.computerPlayers + " computer players in "
+                + String.format("%.3fs", seconds) + (virtual ? " (virtual clock)" : ""));
+        System.out.println(String.format("games/sec: %.2f", games / seconds));
+        System.out.println(String.format("sets/sec: %.2f (%d sets, %d claims)", simulation.sets / seconds, simulation.sets, latencies.length));
+        StringBuilder rejected = new StringBuilder("key presses dropped:");
+        for (Player.Rejection reason : Player.Rejection.values())
+            rejected.append(' ').append(reason.name().toLowerCase()).append(' ').append(simulation.rejected[reason.ordinal()]);
+        System.out.println(rejected);
+        System.out.println("claim verdict latency: p50 " + micros(percentile(latencies, latencies.length, 0.5))
+                + " p90 " + micros(percentile(latencies, latencies.length, 0.9))
+                + " p99 " + micros(percentile(latencies, latencies.length, 0.99))
+                + " max " + micros(percentile(latencies, latencies.length, 1)));
+        System.out.println("game duration: min " + millis(durations[0])
+                + " p50 " + millis(percentile(durations, games, 0.5))
+                + " p90 " + millis(percentile(durations, games, 0.9))
+                + " max " + millis(durations[games - 1])
+                + " avg " + millis(total / games));
+    }
+
+    /**
+     * A user interface that shows nothing (and does not log).
+     */
+    private static class HeadlessUserInterface implements UserInterface {
+        @Override
+        public void placeCard(int card, int slot) {}
+        @Override
+        public void placeCards(int[] cards, int[] slots) {}
+        @Override
+        public void removeCard(int slot) {}
+        @Override
+        public void removeCards() {}
+        @Override
+        public void placeToken(int player, int slot) {}
+        @Override
+        public void removeTokens() {}
+        @Override
+        public void removeTokens(int slot) {}
+        @Override
+        public void removeToken(int player, int slot) {}
+        @Override
+        public void setCountdown(long millies, boolean warn) {}
+        @Override
+        public void setElapsed(long millies) {}
+        @Override
+        public void setFreeze(int player, long millies) {}
+        @Override
+        public void setScore(int player, int score) {}
+        @Override
+        public void announceWinner(int[] players) {}
+        @Override
+        public void dispose() {}
+    }
+}
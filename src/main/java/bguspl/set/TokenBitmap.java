@@ -0,0 +1,203 @@
+package bguspl.set;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The tokens of all players on all slots, kept twice as bitmasks: the slots each player has tokens on, and the
+ * players that have a token on each slot. Placing, removing and looking up a token, and clearing a slot, cost a few
+ * bit operations per 64 slots (or players).
+ * <p>
+ * Every bit is changed atomically, so the bitmap can be read without locking. The two views of a token are updated
+ * one after the other: callers that change the tokens of a slot concurrently should hold a lock of that slot, and
+ * lock-free readers may briefly see a token in one view only.
+ */
+public class TokenBitmap {
+
+    /**
+     * The slots of each player (player p, slot s is bit s % 64 of word p * slotWords + s / 64).
+     */
+    private final AtomicLongArray playerSlots;
+
+    /**
+     * The players on each slot (slot s, player p is bit p % 64 of word s * playerWords + p / 64).
+     */
+    private final AtomicLongArray slotPlayers;
+
+    private final int players;
+    private final int slots;
+    private final int slotWords;
+    private final int playerWords;
+
+    /**
+     * @param players - the number of players.
+     * @param slots   - the number of slots.
+     */
+    public TokenBitmap(int players, int slots) {
+        this.players = players;
+        this.slots = slots;
+        slotWords = words(slots);
+        playerWords = words(players);
+        playerSlots = new AtomicLongArray(players * slotWords);
+        slotPlayers = new AtomicLongArray(slots * playerWords);
+    }
+
+    private static int words(int bits) {
+        return Math.max((bits + Long.SIZE - 1) / Long.SIZE, 1);
+    }
+
+    /**
+     * Sets a bit of a word.
+     * @return - true iff the bit was not set before.
+     */
+    private static boolean set(AtomicLongArray words, int index, long bit) {
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & bit) != 0) return false;
+        } while (!words.compareAndSet(index, word, word | bit));
+        return true;
+    }
+
+    /**
+     * Clears a bit of a word.
+     * @return - true iff the bit was set before.
+     */
+    private static boolean clear(AtomicLongArray words, int index, long bit) {
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & bit) == 0) return false;
+        } while (!words.compareAndSet(index, word, word & ~bit));
+        return true;
+    }
+
+    /**
+     * Place a token of a player on a slot.
+     * @return - true iff the player did not have a token on the slot before.
+     */
+    public boolean place(int player, int slot) {
+        if (!set(playerSlots, player * slotWords + (slot >>> 6), 1L << slot)) return false;
+        set(slotPlayers, slot * playerWords + (player >>> 6), 1L << player);
+        return true;
+    }
+
+    /**
+     * Remove the token of a player from a slot.
+     * @return - true iff the player had a token on the slot.
+     */
+    public boolean remove(int player, int slot) {
+        if (!clear(playerSlots, player * slotWords + (slot >>> 6), 1L << slot)) return false;
+        clear(slotPlayers, slot * playerWords + (player >>> 6), 1L << player);
+        return true;
+    }
+
+    /**
+     * @return - true iff the player has a token on the slot.
+     */
+    public boolean has(int player, int slot) {
+        return (playerSlots.get(player * slotWords + (slot >>> 6)) & (1L << slot)) != 0;
+    }
+
+    /**
+     * @return - the number of tokens the player has on the table.
+     */
+    public int count(int player) {
+        int count = 0;
+        for (int i = player * slotWords, end = i + slotWords; i < end; i++)
+            count += Long.bitCount(playerSlots.get(i));
+        return count;
+    }
+
+    /**
+     * @return - true iff any player has a token on the slot.
+     */
+    public boolean occupied(int slot) {
+        for (int i = slot * playerWords, end = i + playerWords; i < end; i++)
+            if (slotPlayers.get(i) != 0) return true;
+        return false;
+    }
+
+    /**
+     * Find the next slot the player has a token on.
+     * @param from - the first slot to look at.
+     * @return - the lowest slot >= from with a token of the player, or -1 if none.
+     */
+    public int nextSlot(int player, int from) {
+        return next(playerSlots, player * slotWords, slotWords, from, slots);
+    }
+
+    /**
+     * Find the next player that has a token on the slot.
+     * @param from - the first player to look at.
+     * @return - the lowest player >= from with a token on the slot, or -1 if none.
+     */
+    public int nextPlayer(int slot, int from) {
+        return next(slotPlayers, slot * playerWords, playerWords, from, players);
+    }
+
+    private static int next(AtomicLongArray words, int base, int count, int from, int limit) {
+        if (from >= limit) return -1;
+        int index = from >>> 6;
+        long word = words.get(base + index) & (-1L << from);
+        while (word == 0) {
+            if (++index == count) return -1;
+            word = words.get(base + index);
+        }
+        return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @return - the number of words in the mask of the players on a slot.
+     */
+    public int playerWords() {
+        return playerWords;
+    }
+
+    /**
+     * Copy the mask of the players that have a token on the slot (player p is bit p % 64 of word p / 64).
+     * @param mask - the array to fill (of playerWords() words).
+     */
+    public void playersOn(int slot, long[] mask) {
+        for (int i = 0; i < playerWords; i++)
+            mask[i] = slotPlayers.get(slot * playerWords + i);
+    }
+
+    /**
+     * Copy the slots the player has tokens on, in increasing order.
+     * @param slots - the array to fill.
+     * @return - the number of slots copied (at most slots.length).
+     */
+    public int slotsOf(int player, int[] slots) {
+        int length = 0;
+        for (int slot = nextSlot(player, 0); slot >= 0 && length < slots.length; slot = nextSlot(player, slot + 1))
+            slots[length++] = slot;
+        return length;
+    }
+
+    /**
+     * Remove the tokens of all players from a slot.
+     * @return - true iff there was any token on the slot.
+     */
+    public boolean clearSlot(int slot) {
+        boolean removed = false;
+        for (int i = 0; i < playerWords; i++) {
+            long word = slotPlayers.getAndSet(slot * playerWords + i, 0);
+            removed |= word != 0;
+            for (; word != 0; word &= word - 1) {
+                int player = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+                clear(playerSlots, player * slotWords + (slot >>> 6), 1L << slot);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Remove all the tokens of all players.
+     */
+    public void clear() {
+        for (int i = 0; i < playerSlots.length(); i++)
+            playerSlots.set(i, 0);
+        for (int i = 0; i < slotPlayers.length(); i++)
+            slotPlayers.set(i, 0);
+    }
+}
@@ -0,0 +1,63 @@
+package bguspl.set;
+
+import java.util.Arrays;
+
+/**
+ * The text shown on a slot for the players that have tokens on it, cached by the mask of those players, so showing
+ * a combination of players seen recently builds no string. Used by a single thread.
+ */
+final class TokenLabels {
+
+    /**
+     * The number of cached combinations (a power of two).
+     */
+    private static final int CAPACITY = 256;
+
+    private final String[] names;
+
+    /**
+     * The cached labels and their player masks: a mask is only ever cached at the index its hash picks, replacing
+     * whichever combination was there.
+     */
+    private final long[][] masks;
+    private final String[] labels;
+
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * @param names - the name of each player.
+     * @param words - the number of words in a player mask.
+     */
+    TokenLabels(String[] names, int words) {
+        this.names = names;
+        masks = new long[CAPACITY][words];
+        labels = new String[CAPACITY];
+    }
+
+    /**
+     * @param mask - the players that have a token on the slot (player p is bit p % 64 of word p / 64).
+     * @return - the names of the players, separated by commas.
+     */
+    String get(long[] mask) {
+        long hash = 0, any = 0;
+        for (long word : mask) {
+            hash = (hash ^ word) * 0x9E3779B97F4A7C15L;
+            any |= word;
+        }
+        if (any == 0)
+            return ""; // no tokens
+        int index = (int) (hash >>> 56) & (CAPACITY - 1);
+        if (labels[index] != null && Arrays.equals(masks[index], mask))
+            return labels[index];
+
+        text.setLength(0);
+        for (int word = 0; word < mask.length; word++)
+            for (long bits = mask[word]; bits != 0; bits &= bits - 1) {
+                if (text.length() > 0)
+                    text.append(", ");
+                text.append(names[word * Long.SIZE + Long.numberOfTrailingZeros(bits)]);
+            }
+        System.arraycopy(mask, 0, masks[index], 0, mask.length);
+        return labels[index] = text.toString();
+    }
+}
@@ -12,12 +12,31 @@ public interface UserInterface {
      */
     void placeCard(int card, int slot);
 
+    /**
+     * Draw the card images of several cards at once.
+     * @param cards - the card ids.
+     * @param slots - the slot numbers (cards[i] is drawn in slots[i]).
+     */
+    void placeCards(int[] cards, int[] slots);
+
     /**
      * Draw an empty card image in the specified slot.
      * @param slot - the slot number (for grid; slot = row*row.length + column).
      */
     void removeCard(int slot);
 
+    /**
+     * Draw an empty card image in all slots.
+     */
+    void removeCards();
+
+    /**
+     * Hint that the specified cards are likely to be placed soon (e.g. to prepare their images). Nothing is drawn.
+     * @param cards - the card ids (only read during the call).
+     * @param count - the number of cards in the array to consider.
+     */
+    default void prefetchCards(int[] cards, int count) {}
+
     /**
      * Draw a player name text in the specified slot.
      * @param player - the card id.
@@ -26,6 +26,13 @@ public class UserInterfaceDecorator implements UserInterface {
         if (ui != null) ui.placeCard(card, slot);
     }
 
+    @Override
+    public void placeCards(int[] cards, int[] slots) {
+        logger.severe("placing cards " + Arrays.toString(cards) + " in slots " + Arrays.toString(slots));
+        util.spin();
+        if (ui != null) ui.placeCards(cards, slots);
+    }
+
     @Override
     public void removeCard(int slot) {
         logger.severe("removing card from slot " + slot);
@@ -33,6 +40,18 @@ public class UserInterfaceDecorator implements UserInterface {
         if (ui != null) ui.removeCard(slot);
     }
 
+    @Override
+    public void removeCards() {
+        logger.severe("removing all cards");
+        util.spin();
+        if (ui != null) ui.removeCards();
+    }
+
+    @Override
+    public void prefetchCards(int[] cards, int count) {
+        if (ui != null) ui.prefetchCards(cards, count);
+    }
+
     @Override
     public void placeToken(int player, int slot) {
         logger.severe("player " + (player + 1) + " placing token on slot " + slot);
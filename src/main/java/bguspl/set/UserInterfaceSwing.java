@@ -2,12 +2,20 @@ package bguspl.set;
 
 import bguspl.set.ex.Player;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -15,6 +23,10 @@ import static java.lang.String.format;
 
 /**
  * Java Swing implementation of the UserInterface interface.
+ * <p>
+ * The game threads only record what changed; the changes are drawn on the event dispatch thread once per frame
+ * (Config.frameRate), and a slot, player or the timer that changed several times between two frames is drawn once,
+ * with its latest value.
  */
 public class UserInterfaceSwing extends JFrame implements UserInterface {
 
@@ -24,15 +36,61 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
     private final WinnerPanel winnerPanel;
     private final Config config;
 
+    /**
+     * The value of a pending timer change when there is none.
+     */
+    private static final long NO_TIMER = 0;
+
+    /**
+     * The kinds of timer changes, kept in the low bits of pendingTimer (the milliseconds are in the rest).
+     */
+    private static final int COUNTDOWN = 1, COUNTDOWN_WARN = 2, ELAPSED = 3;
+
+    /**
+     * The latest values set by the game threads, and which of them were not drawn yet.
+     */
+    private final AtomicIntegerArray pendingCards;
+    private final AtomicLongArray pendingFreezes;
+    private final AtomicIntegerArray pendingScores;
+    private final AtomicLong pendingTimer = new AtomicLong(NO_TIMER);
+    private final DirtyBits dirtyCards;
+    private final DirtyBits dirtyTokens;
+    private final DirtyBits dirtyFreezes;
+    private final DirtyBits dirtyScores;
+
+    /**
+     * Draws each kind of pending change (created once, so drawing a frame does not allocate). A changed card repaints
+     * only its own cell.
+     */
+    private final IntConsumer drawCard;
+    private final IntConsumer drawTokens;
+    private final IntConsumer drawFreeze;
+    private final IntConsumer drawScore;
+
+    /**
+     * Draws the pending changes on the event dispatch thread, once per frame.
+     */
+    private final Timer frameTimer;
+
     static String intInBaseToPaddedString(int n, int padding, int base) {
         return format("%" + padding + "s", Integer.toString(n, base)).replace(' ', '0');
     }
 
-    public UserInterfaceSwing(Logger logger, Config config, Player[] players) {
+    public UserInterfaceSwing(Logger logger, Config config, Util util, Player[] players) {
 
         this.config = config;
+        pendingCards = new AtomicIntegerArray(config.tableSize);
+        for (int slot = 0; slot < config.tableSize; slot++)
+            pendingCards.set(slot, -1);
+        pendingFreezes = new AtomicLongArray(config.players);
+        pendingScores = new AtomicIntegerArray(config.players);
+        dirtyCards = new DirtyBits(config.tableSize);
+        dirtyTokens = new DirtyBits(config.tableSize);
+        dirtyFreezes = new DirtyBits(config.players);
+        dirtyScores = new DirtyBits(config.players);
+
         timerPanel = new TimerPanel();
-        gamePanel = new GamePanel();
+        gamePanel = new GamePanel(logger, util);
         playersPanel = new PlayersPanel();
         winnerPanel = new WinnerPanel();
 
@@ -66,7 +124,35 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
         addKeyListener(new InputManager(logger, config, players));
         addWindowListener(new WindowManager());
 
+        drawCard = slot -> gamePanel.setCard(slot, pendingCards.get(slot));
+        drawTokens = gamePanel::updateTokenText;
+        drawFreeze = player -> playersPanel.setFreeze(player, pendingFreezes.get(player));
+        drawScore = player -> playersPanel.setScore(player, pendingScores.get(player));
+        frameTimer = new Timer(1000 / config.frameRate, e -> drawFrame());
+        frameTimer.setCoalesce(true);
+
         EventQueue.invokeLater(() -> setVisible(true));
+        frameTimer.start();
+    }
+
+    /**
+     * Draws every change made since the previous frame (called on the event dispatch thread).
+     */
+    private void drawFrame() {
+        dirtyCards.drain(drawCard);
+        dirtyTokens.drain(drawTokens);
+        dirtyFreezes.drain(drawFreeze);
+        dirtyScores.drain(drawScore);
+
+        long timer = pendingTimer.getAndSet(NO_TIMER);
+        if (timer != NO_TIMER) {
+            long millies = timer >> 2;
+            int kind = (int) (timer & 3);
+            if (kind == ELAPSED)
+                timerPanel.setElapsed(millies);
+            else
+                timerPanel.setCountdown(millies, kind == COUNTDOWN_WARN);
+        }
     }
 
     private class TimerPanel extends JPanel {
@@ -102,39 +188,91 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
 
     private class GamePanel extends JLayeredPane {
 
-        private final Image emptyCard;
-        private final Image[] deck;
-        private final Image[][] grid;
-        private final boolean[][][] playerTokens;
+        private final BufferedImage emptyCard;
+
+        /**
+         * The card images, loaded when a card is first placed or about to be dealt.
+         */
+        private final CardImageCache deck;
+
+        /**
+         * The card grid as it is drawn: each card image is drawn into its cell once, when it is placed, and painting
+         * only copies the parts of the grid that need repainting.
+         */
+        private final BufferedImage backbuffer;
+        private final TokenBitmap playerTokens;
         private final JLabel[][] tokenText;
 
-        private Image loadImageResource(String filename) {
+        /**
+         * The players whose tokens each slot shows, the players on the slot being drawn (reused), and the text for
+         * each combination of players.
+         */
+        private final long[][] shownTokens;
+        private final long[] slotTokens;
+        private final TokenLabels tokenLabels;
+
+        /**
+         * Decodes an image resource, scaled to the size of a cell.
+         */
+        private BufferedImage loadImageResource(String filename) {
             URL imageResource = getClass().getClassLoader().getResource(filename);
             if (imageResource == null)
                 throw new RuntimeException(new FileNotFoundException(filename));
-            return new ImageIcon(imageResource).getImage();
+            BufferedImage image;
+            try {
+                image = ImageIO.read(imageResource);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (image.getWidth() == config.cellWidth && image.getHeight() == config.cellHeight)
+                return image;
+            BufferedImage scaled = new BufferedImage(config.cellWidth, config.cellHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, config.cellWidth, config.cellHeight, null);
+            g.dispose();
+            return scaled;
+        }
+
+        private String cardResource(int card) {
+            return "cards/" + intInBaseToPaddedString(card, config.featureCount, config.featureSize) + ".png";
         }
 
-        private GamePanel() {
+        /**
+         * @return - true iff there is a picture file for every card of the deck.
+         */
+        private boolean hasCardResources() {
+            // file names have a digit per feature, so there are none for 10 values or more
+            return config.featureSize < 10 && config.deckSize > 0
+                    && getClass().getClassLoader().getResource(cardResource(0)) != null
+                    && getClass().getClassLoader().getResource(cardResource(config.deckSize - 1)) != null;
+        }
 
-            setPreferredSize(new Dimension(config.columns * config.cellWidth, config.rows * config.cellHeight));
+        private GamePanel(Logger logger, Util util) {
 
-            // init deck and load all pictures from png files
-            assert config.featureSize < 10; // otherwise there will be naming conflicts
+            setPreferredSize(new Dimension(config.columns * config.cellWidth, config.rows * config.cellHeight));
 
-            // load the image resources
-            deck = new Image[config.deckSize];
-            for (int i = 0; i < config.deckSize; ++i)
-                deck[i] = loadImageResource("cards/" + intInBaseToPaddedString(i, config.featureCount, config.featureSize) + ".png");
+            // the card images are loaded (or drawn) in the background when needed
+            boolean png = config.cardImages.equals("png") || (!config.cardImages.equals("drawn") && hasCardResources());
+            if (png) {
+                assert config.featureSize < 10; // otherwise there will be naming conflicts
+                deck = new CardImageCache(logger, config.cardCacheSize, card -> loadImageResource(cardResource(card)), this::cardLoaded);
+            } else {
+                CardRenderer renderer = new CardRenderer(config, util);
+                deck = new CardImageCache(logger, config.cardCacheSize, renderer::render, this::cardLoaded);
+            }
             emptyCard = loadImageResource("cards/empty_card.png");
 
-            grid = new Image[config.rows][config.columns];
+            backbuffer = new BufferedImage(config.columns * config.cellWidth, config.rows * config.cellHeight, BufferedImage.TYPE_INT_ARGB);
             tokenText = new JLabel[config.rows][config.columns];
-            playerTokens = new boolean[config.players][config.rows][config.columns];
+            playerTokens = new TokenBitmap(config.players, config.tableSize);
+            shownTokens = new long[config.tableSize][playerTokens.playerWords()];
+            slotTokens = new long[playerTokens.playerWords()];
+            tokenLabels = new TokenLabels(config.playerNames, playerTokens.playerWords());
             for (int row = 0; row < config.rows; row++) {
                 for (int column = 0; column < config.columns; column++) {
                     // init the cards on the table grid as empty cards
-                    grid[row][column] = emptyCard;
+                    drawCell(row, column, emptyCard);
 
                     // init the JLabel selection overlay
                     tokenText[row][column] = new JLabel("");
@@ -148,67 +286,54 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
             }
         }
 
-        private void placeCard(int slot, int card) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = deck[card];
-            validate();
-            repaint();
-        }
-
-        private void removeCard(int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = emptyCard;
-            validate();
-            repaint();
-        }
-
-        private void placeToken(int player, int slot) {
+        /**
+         * Draws the card in the slot into the backbuffer and repaints just that cell.
+         */
+        private void setCard(int slot, int card) {
             int row = slot / config.columns;
             int column = slot % config.columns;
-            playerTokens[player][row][column] = true;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
+            Image image = card < 0 ? null : deck.get(card);
+            drawCell(row, column, image == null ? emptyCard : image); // drawn again once loaded
+            repaint(column * config.cellWidth, row * config.cellHeight, config.cellWidth, config.cellHeight);
         }
 
-        private void removeTokens() {
-            for (int i = 0; i < config.tableSize; i++)
-                removeTokens(i);
+        /**
+         * Redraws the slots waiting for the image of a card (called on the loading thread).
+         */
+        private void cardLoaded(int card) {
+            for (int slot = 0; slot < config.tableSize; slot++)
+                if (pendingCards.get(slot) == card)
+                    dirtyCards.mark(slot);
         }
 
-        private void removeTokens(int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            for (int player = 0; player < playerTokens.length; player++) {
-                playerTokens[player][row][column] = false;
-                tokenText[row][column].setText(generatePlayersTokenText(row, column));
-            }
+        private void drawCell(int row, int column, Image image) {
+            Graphics2D g = backbuffer.createGraphics();
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(image, column * config.cellWidth, row * config.cellHeight, null); // already cell sized
+            g.dispose();
         }
 
-        private void removeToken(int player, int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            playerTokens[player][row][column] = false;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
-        }
-
-        private String generatePlayersTokenText(int row, int column) {
-            String text = "";
-            for (int player = 0; player < config.players; player++) {
-                if (playerTokens[player][row][column])
-                    text = text.concat(config.playerNames[player] + ", ");
-            }
-            if (text.length() < 2)
-                return "";
-            return text.substring(0, text.length() - 2);
+        /**
+         * Shows the names of the players that have tokens on the slot, unless they are shown already.
+         */
+        private void updateTokenText(int slot) {
+            playerTokens.playersOn(slot, slotTokens);
+            if (Arrays.equals(slotTokens, shownTokens[slot]))
+                return;
+            System.arraycopy(slotTokens, 0, shownTokens[slot], 0, slotTokens.length);
+            tokenText[slot / config.columns][slot % config.columns].setText(tokenLabels.get(slotTokens));
         }
 
         @Override
         public void paintComponent(Graphics g) {
-            // draw card images
-            for (int row = 0; row < config.rows; row++)
-                for (int column = 0; column < config.columns; column++)
-                    g.drawImage(grid[row][column], (column * config.cellWidth), (row * config.cellHeight), this);
+            // copy the dirty part of the card grid (the repaint manager merges the cells repainted in the frame)
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                g.drawImage(backbuffer, 0, 0, this);
+                return;
+            }
+            int right = clip.x + clip.width, bottom = clip.y + clip.height;
+            g.drawImage(backbuffer, clip.x, clip.y, right, bottom, clip.x, clip.y, right, bottom, this);
         }
     }
 
@@ -276,63 +401,99 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
 
     @Override
     public void placeCard(int card, int slot) {
-        gamePanel.placeCard(slot, card);
+        gamePanel.deck.prefetch(card); // start decoding before the frame that draws it
+        pendingCards.set(slot, card);
+        dirtyCards.mark(slot);
+    }
+
+    @Override
+    public void placeCards(int[] cards, int[] slots) {
+        for (int i = 0; i < cards.length; i++) {
+            gamePanel.deck.prefetch(cards[i]);
+            pendingCards.set(slots[i], cards[i]);
+            dirtyCards.mark(slots[i]);
+        }
     }
 
     @Override
     public void removeCard(int slot) {
-        gamePanel.removeCard(slot);
+        pendingCards.set(slot, -1);
+        dirtyCards.mark(slot);
+    }
+
+    @Override
+    public void removeCards() {
+        for (int slot = 0; slot < config.tableSize; slot++)
+            pendingCards.set(slot, -1);
+        dirtyCards.markAll();
+    }
+
+    @Override
+    public void prefetchCards(int[] cards, int count) {
+        for (int i = 0; i < count; i++)
+            gamePanel.deck.prefetch(cards[i]);
     }
 
     @Override
     public void placeToken(int player, int slot) {
-        gamePanel.placeToken(player, slot);
+        if (gamePanel.playerTokens.place(player, slot))
+            dirtyTokens.mark(slot);
     }
 
     @Override
     public void removeTokens() {
-        gamePanel.removeTokens();
+        gamePanel.playerTokens.clear();
+        dirtyTokens.markAll();
     }
 
     @Override
     public void removeTokens(int slot) {
-        gamePanel.removeTokens(slot);
+        if (gamePanel.playerTokens.clearSlot(slot))
+            dirtyTokens.mark(slot);
     }
 
     @Override
     public void removeToken(int player, int slot) {
-        gamePanel.removeToken(player, slot);
+        if (gamePanel.playerTokens.remove(player, slot))
+            dirtyTokens.mark(slot);
     }
 
     @Override
     public void setCountdown(long millies, boolean warn) {
-        timerPanel.setCountdown(millies, warn);
+        pendingTimer.set(Math.max(millies, 0) << 2 | (warn ? COUNTDOWN_WARN : COUNTDOWN));
     }
 
     @Override
     public void setElapsed(long millies) {
-        timerPanel.setElapsed(millies);
+        pendingTimer.set(Math.max(millies, 0) << 2 | ELAPSED);
     }
 
     @Override
     public void setFreeze(int player, long millies) {
-        playersPanel.setFreeze(player, millies);
+        pendingFreezes.set(player, millies);
+        dirtyFreezes.mark(player);
     }
 
     @Override
     public void setScore(int player, int score) {
-        playersPanel.setScore(player, score);
+        pendingScores.set(player, score);
+        dirtyScores.mark(player);
     }
 
     @Override
     public void announceWinner(int[] players) {
-        playersPanel.setVisible(false);
-        winnerPanel.announceWinner(players);
-        winnerPanel.setVisible(true);
+        EventQueue.invokeLater(() -> {
+            drawFrame();
+            playersPanel.setVisible(false);
+            winnerPanel.announceWinner(players);
+            winnerPanel.setVisible(true);
+        });
     }
 
     @Override
     public void dispose() {
+        frameTimer.stop();
+        gamePanel.deck.shutdown();
         super.dispose();
     }
 }
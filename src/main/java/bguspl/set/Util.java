@@ -31,6 +31,15 @@ public interface Util {
      */
     boolean testSet(int[] cards);
 
+    /**
+     * Finds the card that completes two cards to a legal set, for games in which two cards determine the third.
+     *
+     * @param first  - a card id.
+     * @param second - another card id.
+     * @return - the card id completing the two cards to a legal set, or -1 if config.featureSize != 3.
+     */
+    int thirdCard(int first, int second);
+
     /**
      * Finds and returns up to count sets in the given collection of cards.
      *
@@ -40,6 +49,20 @@ public interface Util {
      */
     List<int[]> findSets(List<Integer> deck, int count);
 
+    /**
+     * Finds up to count sets in the first length cards of the given array, without boxing. Small decks are searched
+     * without allocating; a large deck may be searched in parallel, which allocates the tasks and a copy of each set
+     * found (UtilImpl does so from 256 cards on).
+     *
+     * @param deck   - an array of card ids.
+     * @param length - the number of cards to search (from the beginning of the array).
+     * @param count  - the maximum number of sets to find.
+     * @param sets   - an output buffer for the sets found, featureSize sorted card ids per set, filled while there is
+     *                 room (may be null if only the number of sets is needed).
+     * @return - the number of sets found (up to count).
+     */
+    int findSets(int[] deck, int length, int count, int[] sets);
+
     /**
      * Spin a random number of times (for debugging/testing).
      */
@@ -1,9 +1,13 @@
 package bguspl.set;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 /**
@@ -13,8 +17,91 @@ public class UtilImpl implements Util {
 
     private final Config config;
 
+    /**
+     * The packed feature encoding of every card in the deck (null if the features do not fit in a long).
+     * Each feature takes config.featureSize bits, of which exactly one is set (the bit of the feature's value).
+     */
+    private final long[] packedFeatures;
+
+    /**
+     * A mask with the lowest config.featureSize bits set (the bits of a single feature in a packed card).
+     */
+    private final long featureMask;
+
+    /**
+     * The largest deck for which the third card completion table is precomputed (the table holds deckSize^2 ints).
+     */
+    private static final int MAX_COMPLETION_DECK_SIZE = 729;
+
+    /**
+     * The card completing each pair of cards to a legal set, at index first * deckSize + second
+     * (null unless config.featureSize == 3 and the deck is small enough).
+     */
+    private final int[] completion;
+
+    /**
+     * The smallest deck that is searched for sets in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    /**
+     * The number of first-card indices searched by a single parallel task.
+     */
+    private static final int PARALLEL_LEAF_SIZE = 8;
+
+    /**
+     * Working buffers of findSets, one per searching thread.
+     */
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private class Scratch {
+        final long[] members = new long[(config.deckSize + Long.SIZE - 1) / Long.SIZE];
+        final int[] combination = new int[config.featureSize];
+        final int[] cards = new int[config.featureSize];
+    }
+
     public UtilImpl(Config config) {
         this.config = config;
+        featureMask = -1L >>> (Long.SIZE - config.featureSize);
+        if (config.featureSize * config.featureCount <= Long.SIZE) {
+            packedFeatures = new long[config.deckSize];
+            int[] features = new int[config.featureCount];
+            for (int card = 0; card < config.deckSize; ++card) {
+                cardToFeatures(card, features);
+                long packed = 0;
+                for (int i = 0; i < config.featureCount; ++i)
+                    packed |= 1L << (i * config.featureSize + features[i]);
+                packedFeatures[card] = packed;
+            }
+        } else packedFeatures = null;
+
+        if (config.featureSize == 3 && config.deckSize <= MAX_COMPLETION_DECK_SIZE) {
+            completion = new int[config.deckSize * config.deckSize];
+            for (int first = 0; first < config.deckSize; ++first)
+                for (int second = 0; second < config.deckSize; ++second)
+                    completion[first * config.deckSize + second] = computeThirdCard(first, second);
+        } else completion = null;
+    }
+
+    /**
+     * Computes the card that completes two cards to a legal set (only meaningful when config.featureSize == 3).
+     * In every feature, the third value is the one that makes the sum of the three values divisible by 3.
+     */
+    private int computeThirdCard(int first, int second) {
+        int third = 0;
+        for (int weight = 1, i = 0; i < config.featureCount; ++i, weight *= 3) {
+            int a = first % 3, b = second % 3;
+            third += ((6 - a - b) % 3) * weight;
+            first /= 3;
+            second /= 3;
+        }
+        return third;
+    }
+
+    @Override
+    public int thirdCard(int first, int second) {
+        if (config.featureSize != 3) return -1;
+        return completion != null ? completion[first * config.deckSize + second] : computeThirdCard(first, second);
     }
 
     private void cardToFeatures(int card, int[] features) {
@@ -40,7 +127,27 @@ public class UtilImpl implements Util {
 
     @Override
     public boolean testSet(int[] cards) {
-        int[][] features = cardsToFeatures(Arrays.copyOf(cards, cards.length));
+        if (packedFeatures == null) return testSetUnpacked(cards);
+
+        // the union of the packed cards has, per feature, one bit for every distinct value of that feature
+        long union = 0;
+        for (int card : cards)
+            union |= packedFeatures[card];
+
+        for (int i = 0; i < config.featureCount; ++i) {
+            int distinct = Long.bitCount((union >>> (i * config.featureSize)) & featureMask);
+            boolean sameSame = distinct == 1, butDifferent = distinct == cards.length;
+            if (sameSame == butDifferent) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if an array of cards forms a legal set, by comparing their features one by one.
+     * Used when the packed encoding of the cards does not fit in a long.
+     */
+    private boolean testSetUnpacked(int[] cards) {
+        int[][] features = cardsToFeatures(cards);
         for (int i = 0; i < config.featureCount; ++i) {
             boolean sameSame = true, butDifferent = true;
 
@@ -66,28 +173,180 @@ public class UtilImpl implements Util {
 
     @Override
     public List<int[]> findSets(List<Integer> deck, int count) {
+        int[] cards = new int[deck.size()];
+        for (int i = 0; i < cards.length; ++i)
+            cards[i] = deck.get(i);
         LinkedList<int[]> sets = new LinkedList<>();
-        int n = deck.size();
-        int r = config.featureSize;
-        int[] combination = new int[r];
+        findSets(cards, cards.length, count, null, sets);
+        return sets;
+    }
+
+    @Override
+    public int findSets(int[] deck, int length, int count, int[] sets) {
+        return findSets(deck, length, count, sets, null);
+    }
+
+    /**
+     * Finds up to count sets in the first length cards of the deck, reporting each one to an output buffer and/or a list.
+     * Large decks are searched in parallel (with the same results, in the same order).
+     */
+    private int findSets(int[] deck, int length, int count, int[] buffer, List<int[]> list) {
+        if (length < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            Scratch scratch = this.scratch.get();
+            long[] members = scratch.members;
+            for (int i = 0; i < length; ++i)
+                members[deck[i] / Long.SIZE] |= 1L << (deck[i] % Long.SIZE);
+            try {
+                return findSets(deck, length, 0, length, count, members, buffer, list);
+            } finally {
+                for (int i = 0; i < length; ++i)
+                    members[deck[i] / Long.SIZE] = 0;
+            }
+        }
+
+        List<int[]> sets = findSetsInParallel(deck, length, count);
+        for (int i = 0; i < sets.size(); ++i)
+            report(sets.get(i), i, buffer, list);
+        return sets.size();
+    }
+
+    /**
+     * Finds up to count sets in the first length cards of the deck on the calling thread.
+     */
+    List<int[]> findSetsSequentially(int[] deck, int length, int count) {
+        List<int[]> sets = new ArrayList<>();
+        findSets(deck, length, 0, length, count, membership(deck, length), null, sets);
+        return sets;
+    }
+
+    /**
+     * Finds up to count sets in the first length cards of the deck by splitting the search across the common
+     * fork-join pool. The sets are returned in the same order the sequential search finds them.
+     */
+    List<int[]> findSetsInParallel(int[] deck, int length, int count) {
+        return ForkJoinPool.commonPool().invoke(
+                new SearchTask(deck, length, 0, length, count, membership(deck, length), new AtomicInteger(length)));
+    }
+
+    /**
+     * @return - a bitmap of the cards in the first length cards of the deck.
+     */
+    private long[] membership(int[] deck, int length) {
+        long[] members = new long[(config.deckSize + Long.SIZE - 1) / Long.SIZE];
+        for (int i = 0; i < length; ++i)
+            members[deck[i] / Long.SIZE] |= 1L << (deck[i] % Long.SIZE);
+        return members;
+    }
+
+    /**
+     * Finds up to count sets whose first card (in deck order) is at an index in [from, to) of the deck.
+     *
+     * @param members - a bitmap of the cards in the first length cards of the deck.
+     */
+    private int findSets(int[] deck, int length, int from, int to, int count, long[] members, int[] buffer, List<int[]> list) {
+        if (config.featureSize == 3) return findSetsByCompletion(deck, length, from, to, count, members, buffer, list);
+
+        Scratch scratch = this.scratch.get();
+        int[] combination = scratch.combination, cards = scratch.cards;
+        int r = config.featureSize, found = 0;
 
         for (int i = 0; i < r; ++i)
-            combination[i] = i;
+            combination[i] = from + i;
 
-        while (combination[r - 1] < deck.size()) {
-            int[] cards = Arrays.stream(combination).map(deck::get).sorted().toArray();
+        while (combination[0] < to && combination[r - 1] < length) {
+            for (int i = 0; i < r; ++i)
+                cards[i] = deck[combination[i]];
+            Arrays.sort(cards);
             if (testSet(cards)) {
-                sets.add(cards);
-                if (sets.size() >= count) return sets;
+                report(cards, found, buffer, list);
+                if (++found >= count) return found;
             }
 
             // generate next combination in lexicographic order
             int t = r - 1;
-            while (t != 0 && combination[t] == n - r + t) --t;
+            while (t != 0 && combination[t] == length - r + t) --t;
             combination[t]++;
             for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
         }
-        return sets;
+        return found;
+    }
+
+    /**
+     * Finds sets of 3 cards by scanning every pair of cards in the deck and looking up the card that completes it.
+     * Each set is reported once, by the pair of its two smallest cards.
+     */
+    private int findSetsByCompletion(int[] deck, int length, int from, int to, int count, long[] members, int[] buffer, List<int[]> list) {
+        int[] cards = this.scratch.get().cards;
+        int found = 0;
+        for (int i = from; i < to; ++i)
+            for (int j = i + 1; j < length; ++j) {
+                int low = Math.min(deck[i], deck[j]), high = Math.max(deck[i], deck[j]);
+                int third = thirdCard(low, high);
+                if (third > high && (members[third / Long.SIZE] & (1L << (third % Long.SIZE))) != 0) {
+                    cards[0] = low;
+                    cards[1] = high;
+                    cards[2] = third;
+                    report(cards, found, buffer, list);
+                    if (++found >= count) return found;
+                }
+            }
+        return found;
+    }
+
+    /**
+     * A fork-join task searching for the sets whose first card is at an index in [from, to) of the deck.
+     * A task whose range alone holds count sets lowers the shared cutoff to its end, so that tasks starting after
+     * it (whose sets would be dropped anyway) return without searching.
+     */
+    private class SearchTask extends RecursiveTask<List<int[]>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] deck;
+        private final int length, from, to, count;
+        private final long[] members;
+        private final AtomicInteger cutoff;
+
+        SearchTask(int[] deck, int length, int from, int to, int count, long[] members, AtomicInteger cutoff) {
+            this.deck = deck;
+            this.length = length;
+            this.from = from;
+            this.to = to;
+            this.count = count;
+            this.members = members;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            List<int[]> sets = new ArrayList<>();
+            if (from >= cutoff.get()) return sets;
+
+            if (to - from <= PARALLEL_LEAF_SIZE) {
+                findSets(deck, length, from, to, count, members, null, sets);
+            } else {
+                int middle = (from + to) >>> 1;
+                SearchTask right = new SearchTask(deck, length, middle, to, count, members, cutoff);
+                right.fork();
+                sets = new SearchTask(deck, length, from, middle, count, members, cutoff).compute();
+                List<int[]> rightSets = right.join();
+                for (int i = 0; i < rightSets.size() && sets.size() < count; ++i)
+                    sets.add(rightSets.get(i));
+            }
+
+            if (sets.size() >= count)
+                cutoff.accumulateAndGet(to, Math::min);
+            return sets;
+        }
+    }
+
+    /**
+     * Reports the index-th set found, copying it into the output buffer (while there is room) and/or the list.
+     */
+    private static void report(int[] set, int index, int[] buffer, List<int[]> list) {
+        if (list != null) list.add(set.clone());
+        if (buffer != null && (index + 1) * set.length <= buffer.length)
+            System.arraycopy(set, 0, buffer, index * set.length, set.length);
     }
 
     public void spin() {
@@ -0,0 +1,171 @@
+package bguspl.set;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A clock whose time only moves when threads sleep on it: instead of waiting out a sleep, the clock fast-forwards to
+ * the earliest deadline any sleeping thread is waiting for. A sleep that is not the earliest one waits until the
+ * sleeps before it have passed, so deadlines are reached in order, just like on the wall clock.
+ * <p>
+ * Events that happen in real time (e.g. key presses queued for the dealer) are given a short real-time window to
+ * arrive before a timed {@link #poll} fast-forwards, and a poll waiting behind earlier sleepers returns as soon as an
+ * element arrives, at the game time it arrived. Scheduled tasks are waited for by a single timer thread, which
+ * sleeps on the clock like any other thread.
+ */
+public class VirtualClock implements Clock {
+
+    /**
+     * The current game time in milliseconds.
+     */
+    private long now;
+
+    /**
+     * The deadlines of the threads sleeping on the clock.
+     */
+    private final LongHeap deadlines = new LongHeap();
+
+    /**
+     * How long a timed poll waits in real time for an element before fast-forwarding the clock.
+     */
+    private final long realPollMillis;
+
+    /**
+     * How often a waiting poll looks at its queue again, in real milliseconds (offering to a queue wakes no one here).
+     */
+    private static final long RECHECK_MILLIS = 1;
+
+    /**
+     * A task waiting for its game time to run.
+     */
+    private static final class Timer {
+        final long deadline;
+        final ScheduledExecutorService executor;
+        final Runnable task;
+
+        Timer(long deadline, ScheduledExecutorService executor, Runnable task) {
+            this.deadline = deadline;
+            this.executor = executor;
+            this.task = task;
+        }
+    }
+
+    /**
+     * The scheduled tasks, earliest first, and the thread that waits for them (started with the first one).
+     */
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>((a, b) -> Long.compare(a.deadline, b.deadline));
+    private Thread timerThread;
+
+    /**
+     * @param start          - the game time the clock starts at, in milliseconds.
+     * @param realPollMillis - how long a timed poll waits in real time before fast-forwarding (0 to not wait).
+     */
+    public VirtualClock(long start, long realPollMillis) {
+        this.now = start;
+        this.realPollMillis = realPollMillis;
+    }
+
+    @Override
+    public synchronized long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public synchronized void sleep(long millis) throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
+        if (millis <= 0) return;
+
+        long deadline = now + millis;
+        deadlines.add(deadline);
+        try {
+            while (now < deadline) {
+                if (deadlines.peek() == deadline) {
+                    now = deadline; // nobody sleeps for less: fast-forward
+                    notifyAll();
+                } else
+                    wait();
+            }
+        } finally {
+            deadlines.remove(deadline);
+            notifyAll(); // the next deadline may be the earliest now
+        }
+    }
+
+    @Override
+    public synchronized void schedule(ScheduledExecutorService executor, Runnable task, long millis) {
+        timers.add(new Timer(now + Math.max(millis, 0), executor, task));
+        if (timerThread == null) {
+            timerThread = new Thread(this::runTimers, "virtual-timers");
+            timerThread.setDaemon(true);
+            timerThread.start();
+        }
+        notifyAll(); // the new task may be the earliest
+    }
+
+    /**
+     * The timer thread: sleeps until the earliest scheduled task is due, then hands it to its executor.
+     */
+    private synchronized void runTimers() {
+        try {
+            while (true) {
+                Timer first = timers.peek();
+                if (first == null) {
+                    wait();
+                } else if (now >= first.deadline) {
+                    timers.poll();
+                    try {
+                        first.executor.execute(first.task);
+                    } catch (RejectedExecutionException ignored) {
+                    }
+                } else {
+                    // sleep like any other thread, but start over whenever a task is scheduled
+                    long deadline = first.deadline;
+                    deadlines.add(deadline);
+                    try {
+                        if (deadlines.peek() == deadline)
+                            now = deadline; // nobody sleeps for less: fast-forward
+                        else
+                            wait();
+                    } finally {
+                        deadlines.remove(deadline);
+                        notifyAll();
+                    }
+                }
+            }
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    @Override
+    public <E> E poll(BlockingQueue<E> queue, long timeout) throws InterruptedException {
+        if (timeout == Long.MAX_VALUE) return queue.take(); // only an element (or an interrupt) ends this wait
+        if (Thread.interrupted()) throw new InterruptedException();
+
+        E element = queue.poll();
+        if (element != null || timeout <= 0) return element;
+
+        long realDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(realPollMillis);
+        synchronized (this) {
+            long deadline = now + timeout;
+            deadlines.add(deadline);
+            try {
+                while (now < deadline) {
+                    element = queue.poll();
+                    if (element != null) return element;
+                    if (deadlines.peek() == deadline && System.nanoTime() - realDeadline >= 0) {
+                        now = deadline; // nobody sleeps for less and nothing arrived in time: fast-forward
+                        notifyAll();
+                    } else
+                        wait(RECHECK_MILLIS);
+                }
+            } finally {
+                deadlines.remove(deadline);
+                notifyAll();
+            }
+        }
+        return queue.poll();
+    }
+}
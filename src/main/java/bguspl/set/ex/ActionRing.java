@@ -0,0 +1,165 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded queue of key presses (slots, with the time they were pressed) from a player's input thread to the player
+ * thread.
+ * <p>
+ * Exactly one thread offers (the keyboard or the ai thread) and one thread takes (the player thread), so the ring
+ * needs no locks: each index is written by one side only, and publishing an index publishes the slots before it.
+ * A press that does not fit is dropped and counted; the player thread parks while the ring is empty.
+ * Any thread may clear the ring, which skips everything offered so far.
+ */
+public class ActionRing {
+
+    /**
+     * Returned by poll when the ring is empty (slots are never negative).
+     */
+    public static final int EMPTY = -1;
+
+    private final int[] slots;
+    private final long[] pressedAt;
+    private final int mask;
+    private final int capacity;
+
+    /**
+     * The index of the next slot to take (written by the player thread only).
+     */
+    private volatile long head;
+
+    /**
+     * The index of the next slot to offer (written by the input thread only).
+     */
+    private volatile long tail;
+
+    /**
+     * Slots before this index were cleared and are skipped.
+     */
+    private volatile long clearedTo;
+
+    /**
+     * The player thread while it is parked on an empty ring (null otherwise).
+     */
+    private volatile Thread consumer;
+
+    /**
+     * The number of presses dropped because the ring was full (written by the input thread only).
+     */
+    private volatile long dropped;
+
+    /**
+     * The time the press last taken was made (used by the player thread only).
+     */
+    private long lastPressedAt;
+
+    /**
+     * @param capacity - the maximal number of presses waiting in the ring.
+     */
+    public ActionRing(int capacity) {
+        this.capacity = capacity;
+        int size = Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1);
+        slots = new int[size];
+        pressedAt = new long[size];
+        mask = size - 1;
+    }
+
+    private long first() {
+        return Math.max(head, clearedTo);
+    }
+
+    /**
+     * Add a press made now, unless the ring is full. Called by the input thread only.
+     * @param slot - the slot pressed.
+     * @return - true iff the press was added, false if it was dropped.
+     */
+    public boolean offer(int slot) {
+        return offer(slot, System.nanoTime());
+    }
+
+    /**
+     * Add a press, unless the ring is full. Called by the input thread only.
+     * @param slot      - the slot pressed.
+     * @param timeNanos - the time the key was pressed (System.nanoTime).
+     * @return - true iff the press was added, false if it was dropped.
+     */
+    public boolean offer(int slot, long timeNanos) {
+        long t = tail;
+        if (t - first() >= capacity) {
+            dropped++;
+            return false;
+        }
+        slots[(int) t & mask] = slot;
+        pressedAt[(int) t & mask] = timeNanos;
+        tail = t + 1;
+
+        Thread waiting = consumer;
+        if (waiting != null)
+            LockSupport.unpark(waiting);
+        return true;
+    }
+
+    /**
+     * Remove the oldest press without waiting. Called by the player thread only.
+     * @return - the slot pressed, or EMPTY if there is none.
+     */
+    public int poll() {
+        while (true) {
+            long h = first();
+            if (h == tail) return EMPTY;
+            int slot = slots[(int) h & mask];
+            long time = pressedAt[(int) h & mask];
+            if (clearedTo <= h) { // not cleared (and possibly overwritten) while it was read
+                lastPressedAt = time;
+                head = h + 1;
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest press, parking until there is one. Called by the player thread only.
+     * @return - the slot pressed.
+     * @throws InterruptedException - if the player thread was interrupted.
+     */
+    public int take() throws InterruptedException {
+        int slot;
+        while ((slot = poll()) == EMPTY) {
+            consumer = Thread.currentThread();
+            if (isEmpty())
+                LockSupport.park(this);
+            consumer = null;
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+        return slot;
+    }
+
+    /**
+     * @return - the time (System.nanoTime) of the press last returned by poll or take. Called by the player thread only.
+     */
+    public long pressedAt() {
+        return lastPressedAt;
+    }
+
+    /**
+     * Drop every press offered so far.
+     */
+    public void clear() {
+        clearedTo = tail;
+    }
+
+    public boolean isEmpty() {
+        return first() == tail;
+    }
+
+    public int size() {
+        return (int) (tail - first());
+    }
+
+    /**
+     * @return - the number of presses dropped so far because the ring was full.
+     */
+    public long dropped() {
+        return dropped;
+    }
+}
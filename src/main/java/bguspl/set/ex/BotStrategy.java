@@ -0,0 +1,51 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+/**
+ * This interface decides which keys a computer player presses.
+ */
+public interface BotStrategy {
+
+    /**
+     * Returned by nextSlot when there is nothing worth pressing right now.
+     */
+    int NONE = -1;
+
+    /**
+     * Choose the next key to press. Called repeatedly by the player's ai thread (or by a task on the shared bot pool),
+     * whenever its queue of key presses has room. Must not block: a strategy that wants to wait returns NONE and
+     * tells when it will be ready through readyAt.
+     * @return - the slot to press, or NONE to press nothing this time.
+     * @throws InterruptedException - if the ai thread was interrupted while thinking.
+     */
+    int nextSlot() throws InterruptedException;
+
+    /**
+     * @return - the game time (env.clock) before which nextSlot will press nothing, or Long.MIN_VALUE if it may press
+     * a key at any time.
+     */
+    default long readyAt() {
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Create the strategy configured by BotStrategy for a computer player.
+     * @param env    - the environment object.
+     * @param table  - the table object.
+     * @param player - the computer player.
+     * @return - the strategy (random if the configured one is unknown).
+     */
+    static BotStrategy create(Env env, Table table, Player player) {
+        switch (env.config.botStrategy) {
+            case "greedy":
+                return new SetFinderBot(env, table, player);
+            case "human":
+                return new HumanLikeBot(env, table, player);
+            default:
+                if (!env.config.botStrategy.equals("random"))
+                    env.logger.severe("unknown bot strategy " + env.config.botStrategy + ", using random.");
+                return new RandomBot(env);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package bguspl.set.ex;
+
+import java.util.Comparator;
+
+/**
+ * A player's claim that the cards under its tokens form a legal set, waiting for the dealer's verdict.
+ * The claim is checked on the player's thread when it is made; the dealer only confirms that the slots did not
+ * change since, and applies the verdict.
+ */
+final class Claim {
+
+    /**
+     * The claiming player.
+     */
+    final Player player;
+
+    /**
+     * The time of the key press that completed the claim (System.nanoTime).
+     */
+    final long arrivalNanos;
+
+    /**
+     * The slots under the player's tokens, and their versions when the claim was made.
+     */
+    final int[] slots;
+    final long[] versions;
+
+    /**
+     * The table's epoch when the claim was checked.
+     */
+    final long epoch;
+
+    /**
+     * True iff there was a card in each of featureSize slots when the claim was checked (if one was taken between
+     * reading the tokens and reading the cards, the claim is stale).
+     */
+    final boolean complete;
+
+    /**
+     * True iff the cards in the slots formed a legal set when the claim was checked.
+     */
+    final boolean legal;
+
+    /**
+     * Orders claims by the time of the key press that completed them (ties go to the lower player id).
+     */
+    static final Comparator<Claim> ARRIVAL_ORDER = (a, b) -> {
+        int order = Long.compare(a.arrivalNanos - b.arrivalNanos, 0); // nanoTime values are compared by difference
+        return order != 0 ? order : Integer.compare(a.player.id, b.player.id);
+    };
+
+    Claim(Player player, long arrivalNanos, int[] slots, long[] versions, long epoch, boolean complete, boolean legal) {
+        this.player = player;
+        this.arrivalNanos = arrivalNanos;
+        this.slots = slots;
+        this.versions = versions;
+        this.epoch = epoch;
+        this.complete = complete;
+        this.legal = legal;
+    }
+}
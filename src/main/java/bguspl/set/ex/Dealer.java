@@ -2,12 +2,10 @@ package bguspl.set.ex;
 
 import bguspl.set.Env;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.random.*;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class manages the dealer's threads and data
@@ -26,9 +24,14 @@ public class Dealer implements Runnable {
     private final Player[] players;
 
     /**
-     * The list of card ids that are left in the dealer's deck.
+     * The card ids that are left in the dealer's deck.
      */
-    private final List<Integer> deck;
+    private final Deck deck;
+
+    /**
+     * The cards to be dealt next, as last passed to the ui to prepare (reused).
+     */
+    private final int[] upcoming;
 
     /**
      * True iff game should be terminated.
@@ -40,6 +43,21 @@ public class Dealer implements Runnable {
      */
     private long reshuffleTime = Long.MAX_VALUE;
 
+    /**
+     * The time when the timer display should be refreshed next.
+     */
+    private long nextDisplayUpdate = Long.MAX_VALUE;
+
+    /**
+     * How often the countdown is refreshed while it shows the warning (with hundredths of a second).
+     */
+    private static final long WARNING_REFRESH_MILLIS = 10;
+
+    /**
+     * The claims of players waiting for a verdict, ordered by the time of the key press that completed them.
+     */
+    private final BlockingQueue<Claim> claims = new PriorityBlockingQueue<>(11, Claim.ARRIVAL_ORDER);
+
     private Thread dealer;
 
     public volatile boolean isWorking = false;
@@ -50,13 +68,47 @@ public class Dealer implements Runnable {
 
     long timePass = 0;
 
+    /**
+     * Counts down the players' freezes on the display.
+     */
+    private final FreezeTicker freezeTicker;
+    private Thread freezeTickerThread;
+
+    /**
+     * Runs the player and bot loops.
+     */
+    private final Execution execution;
+
+    /**
+     * Receives the verdict of every claim the dealer checks (null if none).
+     */
+    private volatile ClaimListener claimListener;
+
+    /**
+     * A listener for the dealer's verdicts on claims (e.g. for collecting statistics).
+     */
+    public interface ClaimListener {
+
+        /**
+         * Called on the dealer thread after a claim was checked and the verdict applied.
+         *
+         * @param player       - the id of the claiming player.
+         * @param legal        - true iff the claimed cards formed a legal set.
+         * @param latencyNanos - the time from the key press that completed the claim until the verdict was applied.
+         */
+        void verdict(int player, boolean legal, long latencyNanos);
+    }
+
     public Dealer(Env env, Table table, Player[] players) {
         this.env = env;
         this.table = table;
         this.players = players;
-        deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
+        deck = new Deck(env.config.deckSize, env.config.deckSeed);
+        upcoming = new int[env.config.featureSize];
         dealerKey = new Object();
         haveTimer = env.config.turnTimeoutMillis > 0;
+        freezeTicker = new FreezeTicker(env, players);
+        execution = new Execution(env);
     }
 
     /**
@@ -67,9 +119,12 @@ public class Dealer implements Runnable {
         dealer = Thread.currentThread();
         env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
 
+        freezeTickerThread = execution.newThread(freezeTicker, "freeze-ticker");
+        freezeTickerThread.start();
+
         // creating the players threads:
         for (int i = 0; i < players.length; i++) {
-            Thread player = new Thread(players[i], "player" + i);
+            Thread player = execution.newThread(players[i], "player" + i);
 
             synchronized (players[i]) {
                 player.start();
@@ -93,6 +148,17 @@ public class Dealer implements Runnable {
         }
         announceWinners();
         terminate();
+        for (int i = players.length - 1; i >= 0; i--) {
+            try {
+                players[i].playerThread.join();
+            } catch (InterruptedException ignored) {
+            }
+        }
+        try {
+            freezeTickerThread.join();
+        } catch (InterruptedException ignored) {
+        }
+        execution.shutdown();
         Thread.currentThread().interrupt();
         env.logger.info("thread " + Thread.currentThread().getName() + " terminated.");
     }
@@ -102,8 +168,8 @@ public class Dealer implements Runnable {
      * not time out.
      */
     private void timerLoop() {
-        reshuffleTime = System.currentTimeMillis() + env.config.turnTimeoutMillis + 1000;
-        while (!terminate && System.currentTimeMillis() < reshuffleTime) {
+        reshuffleTime = env.clock.currentTimeMillis() + env.config.turnTimeoutMillis + 1000;
+        while (!terminate && env.clock.currentTimeMillis() < reshuffleTime) {
             sleepUntilWokenOrTimeout();
             updateTimerDisplay(false);
             removeCardsFromTable();
@@ -124,12 +190,7 @@ public class Dealer implements Runnable {
 
     // return true if have no sets
     private boolean shuffle() {
-        List<Integer> cards = new LinkedList<>();
-        for (int i = 0; i < env.config.tableSize; i++) {
-            if (table.slotToCard[i] != null)
-                cards.add(this.table.slotToCard[i]);
-        }
-        return env.util.findSets(cards, 1).size() == 0;
+        return !table.hasSet();
     }
 
     /**
@@ -137,10 +198,31 @@ public class Dealer implements Runnable {
      */
     public void terminate() {
         terminate = true;
+        if (dealer != null && dealer != Thread.currentThread())
+            dealer.interrupt(); // wake the dealer if it is waiting for claims
         for (int i = players.length - 1; i >= 0; i--) {
             players[i].terminate();
             players[i].playerThread.interrupt();
         }
+        freezeTicker.terminate();
+        if (freezeTickerThread != null)
+            freezeTickerThread.interrupt();
+    }
+
+    /**
+     * Called by a player that was just frozen, to have its freeze counted down on the display.
+     *
+     * @param player - the frozen player.
+     */
+    public void frozen(Player player) {
+        freezeTicker.add(player);
+    }
+
+    /**
+     * @return - how the player and bot loops run.
+     */
+    Execution execution() {
+        return execution;
     }
 
     /**
@@ -149,42 +231,83 @@ public class Dealer implements Runnable {
      * @return true iff the game should be finished.
      */
     private boolean shouldFinish() {
-        return terminate || env.util.findSets(deck, 1).size() == 0;
+        return terminate || !deck.hasSet(env.util);
+    }
+
+    /**
+     * Submits a claim that the cards under the player's tokens form a legal set, and wakes the dealer to apply the
+     * verdict. The cards are checked here, on the claiming player's thread, against a consistent read of the table.
+     * The player is released (its checkMe flag cleared and its thread unparked) once the claim was handled.
+     *
+     * @param player      - the claiming player.
+     * @param pressedNanos - the time of the key press that completed the claim (System.nanoTime).
+     */
+    public void submitClaim(Player player, long pressedNanos) {
+        int[] slots = new int[env.config.featureSize];
+        slots = Arrays.copyOf(slots, table.tokens.slotsOf(player.id, slots));
+        int[] cards = new int[slots.length];
+        long[] versions = new long[slots.length];
+        long epoch = table.read(slots, cards, versions);
+        boolean complete = slots.length == env.config.featureSize;
+        for (int card : cards)
+            complete &= card != Table.NO_CARD; // the card under a token was taken (the claim is stale)
+        boolean legal = complete && env.util.testSet(cards);
+        claims.add(new Claim(player, pressedNanos, slots, versions, epoch, complete, legal));
+    }
+
+    /**
+     * Sets the listener notified of every verdict.
+     *
+     * @param listener - the listener (null for none).
+     */
+    public void setClaimListener(ClaimListener listener) {
+        claimListener = listener;
     }
 
     /**
      * Checks cards should be removed from the table and removes them.
+     * Pending claims are handled in the order of the key presses that completed them, not in the order the player
+     * threads got to submit them; the first of several claims on the same card wins, and the others become stale.
      */
-    private void removeCardsFromTable() {
+    void removeCardsFromTable() {
+        Claim claim;
+        while ((claim = claims.poll()) != null)
+            checkClaim(claim);
+    }
 
-        for (int i = 0; i < players.length; i++) {
-            if (players[i].checkMe && players[i].tokenCounter == env.config.featureSize) {
-                int[] tokens = players[i].tokens;
-                int[] cards = slotToCard(players[i].tokens);
-
-                if (env.util.testSet(cards)) {
-                    env.logger.info("PLAYER " + players[i].id + " HAS A SET");
-                    for (int j = 0; j < tokens.length; j++) {
-                        synchronized (table.slotLock[j]) {
-                            int cardToRemove = tokens[j];
-                            removeOtherTokens(cardToRemove); // removing mine and other's tokens from the card
-                            table.removeCard(cardToRemove);
-                        }
+    private void checkClaim(Claim claim) {
+        Player player = claim.player;
+        int[] tokens = claim.slots;
+        // a claim on cards that were replaced or removed since (the dealer is the only one changing them) is void
+        boolean current = claim.complete && (claim.epoch == table.epoch() || table.isCurrent(tokens, claim.versions));
+        // and so is one whose tokens were lifted with a card taken by an earlier claim before the cards were read:
+        // the cards read may then be the replacements, which the player never chose
+        for (int slot : tokens)
+            current &= table.tokens.has(player.id, slot);
+        if (player.checkMe && tokens.length == env.config.featureSize && current) {
+            boolean legal = claim.legal;
+            if (legal) {
+                env.logger.info("PLAYER " + player.id + " HAS A SET (claimed "
+                        + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - claim.arrivalNanos) + "us ago)");
+                for (int slot : tokens) {
+                    synchronized (table.slotLock[slot]) {
+                        table.removeTokens(slot); // removing mine and other's tokens from the card
+                        table.removeCard(slot);
                     }
-                    // removeOtherTokens(tokens);
-                    players[i].point();
-                    updateTimerDisplay(true);
+                }
+                player.point();
+                updateTimerDisplay(true);
 
-                } else {
-                    players[i].penalty();
+            } else {
+                player.penalty();
 
-                }
-            }
-            players[i].checkMe = false;
-            synchronized (players[i].playerKey) {
-                players[i].playerKey.notify();
             }
+
+            ClaimListener listener = claimListener;
+            if (listener != null)
+                listener.verdict(player.id, legal, System.nanoTime() - claim.arrivalNanos);
         }
+        player.release();
     }
 
     /**
@@ -193,27 +316,38 @@ public class Dealer implements Runnable {
     private void placeCardsOnTable() {
 
         isWorking = true;
-        for (int slot = 0; slot < env.config.tableSize && deck.size() > 0; slot++) {
-            if (table.slotToCard[slot] == null) {
-                int randomIndex = randomCard();
-                int card = deck.get(randomIndex);
-                table.placeCard(card, slot);
-                deck.remove(randomIndex);
+        int empty = 0;
+        for (int slot = 0; slot < env.config.tableSize; slot++)
+            if (!table.hasCard(slot))
+                empty++;
+
+        int count = Math.min(empty, deck.size());
+        if (count > 0) {
+            int[] cards = new int[count], slots = new int[count];
+            for (int slot = 0, i = 0; i < count; slot++) {
+                if (!table.hasCard(slot)) {
+                    slots[i] = slot;
+                    cards[i++] = deck.draw();
+                }
             }
+            table.placeCards(cards, slots);
+            env.ui.prefetchCards(upcoming, deck.peek(upcoming)); // the next set's worth of cards
         }
         isWorking = false;
     }
 
     /**
-     * Sleep for a fixed amount of time or until the thread is awakened for some
-     * purpose.
+     * Sleep until a claim is submitted or the timer display is due for a refresh.
+     * A claim that woke the dealer is handled right away (the queue was empty, so it is the oldest one).
      */
     private void sleepUntilWokenOrTimeout() {
-        synchronized (this) {
-            try {
-                wait(100);
-            } catch (InterruptedException e) {
-            }
+        if (terminate || !claims.isEmpty()) return;
+        long timeout = nextDisplayUpdate == Long.MAX_VALUE ? Long.MAX_VALUE : nextDisplayUpdate - env.clock.currentTimeMillis();
+        if (timeout <= 0) return;
+        try {
+            Claim claim = env.clock.poll(claims, timeout);
+            if (claim != null) checkClaim(claim);
+        } catch (InterruptedException ignored) {
         }
     }
 
@@ -221,30 +355,40 @@ public class Dealer implements Runnable {
      * Reset and/or update the countdown and the countdown display.
      */
     private void updateTimerDisplay(boolean reset) {
+        long now = env.clock.currentTimeMillis();
+        if (!reset && now < nextDisplayUpdate) return; // claims woke the dealer before the display is due
 
         if (env.config.turnTimeoutMillis > 0) {
             if (reset) {
                 env.ui.setCountdown(env.config.turnTimeoutMillis, false);
-                reshuffleTime = System.currentTimeMillis() + env.config.turnTimeoutMillis + 1000;
+                reshuffleTime = now + env.config.turnTimeoutMillis + 1000;
+                nextDisplayUpdate = now + 1000;
             } else {
 
-                long clockTime = reshuffleTime - System.currentTimeMillis();
+                long clockTime = reshuffleTime - now;
                 if (clockTime < 0)
                     env.ui.setCountdown(0, true);
                 else
                     env.ui.setCountdown(clockTime, clockTime <= env.config.turnTimeoutWarningMillis);
+
+                // refresh on the next whole second, or often while the warning shows the hundredths
+                if (clockTime <= env.config.turnTimeoutWarningMillis + 1000)
+                    nextDisplayUpdate = now + Math.min(WARNING_REFRESH_MILLIS, Math.max(clockTime, 1));
+                else
+                    nextDisplayUpdate = now + Math.max(clockTime % 1000, 1);
             }
 
         } else if (env.config.turnTimeoutMillis == 0) {
             
             if(reset){
                 env.ui.setElapsed(0);
-                timePass = System.currentTimeMillis();
+                timePass = now;
             }
             else {
-                long time = System.currentTimeMillis()- timePass;
+                long time = now - timePass;
                 env.ui.setElapsed(time);
             }
+            nextDisplayUpdate = now + 1000 - (now - timePass) % 1000;
         }
 
     }
@@ -254,14 +398,13 @@ public class Dealer implements Runnable {
      */
     private void removeAllCardsFromTable() {
         isWorking = true;
-        env.ui.removeTokens();
-        resetTokens();
         for (int slot = 0; slot < env.config.tableSize; slot++) {
-            if (table.slotToCard[slot] != null) {
-                deck.add(table.slotToCard[slot]);
-                table.removeCard(slot);
-            }
+            if (table.hasCard(slot))
+                deck.add(table.cardAt(slot));
         }
+        table.clearTable();
+        resetTokens(); // only once the cards are gone, so that no press taken before can still land on one
+        removeCardsFromTable(); // claims on the old table only release their players
         isWorking = false;
     }
 
@@ -291,62 +434,13 @@ public class Dealer implements Runnable {
 
     /*-------------------------------Our Functions------------------------------------------*/
 
-    // return a random number in the size of the deck
-    private int randomCard() {
-        Random rnd = new Random();
-        int card = rnd.nextInt(deck.size());
-        return card;
-    }
-
-    // reset all the players tokensArray
+    // reset all the players tokens and pending key presses
     private void resetTokens() {
 
-        for (Player p : players) {
+        for (Player p : players)
             p.actions.clear();
-            p.tokenCounter = 0;
-            for (int i = 0; i < p.tokens.length; i++) {
-                p.tokens[i] = -1;
-            }
-        }
-    }
-
-    private void removeOtherTokens(int slot) {
-        synchronized (table.slotLock[slot]) {
-            for (Player p : players) {
-                for (int i = 0; i < p.tokens.length; i++) {
-                    if (p.tokens[i] == slot) {
-                        p.tokenCounter--;
-                        p.tokens[i] = -1;
-                        env.ui.removeToken(p.id, slot);
-                    }
-                }
-            }
-        }
+        table.removeTokens();
     }
 
-    private int[] slotToCard(int[] slots) {
-        int[] cards = new int[env.config.featureSize];
-        for (int i = 0; i < slots.length; i++) {
-            if (table.slotToCard[slots[i]] == null)
-                Thread.currentThread().interrupt();
-            else
-                cards[i] = table.slotToCard[slots[i]];
-        }
-        return cards;
-    }
-
-    // private void removeOtherTokens (int[] slots){
-
-    // for (int i = 0; i < slots.length; i++) {
-    // for (int j = 0; j < players.length; j++) {
-    // if(players[j].hasToken(slots[i]) >= 0){
-    // table.removeToken(players[j].id, slots[i]);
-    // players[j].tokens[players[j].hasToken(slots[i])] = -1;
-    // players[j].tokenCounter--;
-    // }
-
-    // }
-    // }
-    // }
 
 }
@@ -0,0 +1,92 @@
+package bguspl.set.ex;
+
+import bguspl.set.Util;
+
+import java.util.Random;
+
+/**
+ * The cards left in the dealer's deck, kept in random order in a primitive array.
+ * Drawing and returning a card take constant time and allocate nothing.
+ *
+ * @inv 0 <= size <= cards.length
+ */
+public class Deck {
+
+    /**
+     * The cards in the deck are cards[0..size-1], in random order.
+     */
+    private final int[] cards;
+
+    private int size;
+
+    private final Random random;
+
+    /**
+     * Creates a shuffled deck of the cards 0..deckSize-1.
+     *
+     * @param deckSize - the number of cards.
+     * @param seed     - the seed for shuffling the deck (null for a different order every game).
+     */
+    public Deck(int deckSize, Long seed) {
+        cards = new int[deckSize];
+        random = seed == null ? new Random() : new Random(seed);
+        for (int card = 0; card < deckSize; card++)
+            add(card);
+    }
+
+    /**
+     * @return - the number of cards in the deck.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Draws a random card from the deck.
+     *
+     * @return - the card drawn.
+     * @pre - the deck is not empty.
+     * @post - the deck has one card less.
+     */
+    public int draw() {
+        return cards[--size];
+    }
+
+    /**
+     * Copies the cards that will be drawn next, in the order they will be drawn (unless cards are returned first).
+     *
+     * @param next - filled with the next cards.
+     * @return - the number of cards copied (fewer than next.length if the deck is smaller).
+     */
+    public int peek(int[] next) {
+        int count = Math.min(next.length, size);
+        for (int i = 0; i < count; i++)
+            next[i] = cards[size - 1 - i];
+        return count;
+    }
+
+    /**
+     * Returns a card to a random position in the deck (an "inside-out" Fisher-Yates step, so the deck stays shuffled).
+     *
+     * @param card - the card to return.
+     * @post - the deck has one card more.
+     */
+    public void add(int card) {
+        int position = random.nextInt(size + 1);
+        cards[size] = cards[position];
+        cards[position] = card;
+        size++;
+    }
+
+    /**
+     * @param util - the utilities used to search for sets.
+     * @return - true iff there is at least one legal set among the cards in the deck.
+     */
+    public boolean hasSet(Util util) {
+        return util.findSets(cards, size, 1, null) > 0;
+    }
+}
@@ -0,0 +1,84 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * How the game runs the loops of its players and bots, as configured by ThreadModel:
+ * <ul>
+ * <li>platform - a platform thread per player and per bot (the default).</li>
+ * <li>virtual  - a virtual thread per player and per bot (Java 21 and up; platform threads on older runtimes).</li>
+ * <li>pooled   - a platform thread per player, while the bots press their keys as periodic tasks on a shared pool
+ *                with a thread per processor (the tasks never block: see BotStrategy.nextSlot).</li>
+ * </ul>
+ */
+class Execution {
+
+    private final ThreadFactory threads;
+
+    /**
+     * The pool the bots run on (null unless pooled).
+     */
+    private final ScheduledExecutorService botPool;
+
+    Execution(Env env) {
+        String model = env.config.threadModel;
+        ThreadFactory virtual = model.equals("virtual") ? virtualThreadFactory(env) : null;
+        threads = virtual != null ? virtual : Thread::new;
+
+        if (model.equals("pooled")) {
+            AtomicInteger count = new AtomicInteger();
+            botPool = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+                Thread thread = new Thread(task, "bots-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            botPool = null;
+            if (!model.equals("platform") && !model.equals("virtual"))
+                env.logger.severe("unknown thread model " + model + ", using platform threads.");
+        }
+    }
+
+    /**
+     * The factory of virtual threads, looked up reflectively so that the game still builds for Java 8.
+     * @return - the factory, or null if the runtime has no virtual threads.
+     */
+    private static ThreadFactory virtualThreadFactory(Env env) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            env.logger.severe("virtual threads need Java 21, using platform threads.");
+            return null;
+        }
+    }
+
+    /**
+     * Create (but do not start) a thread for a player or bot loop.
+     */
+    Thread newThread(Runnable task, String name) {
+        Thread thread = threads.newThread(task);
+        thread.setName(name);
+        return thread;
+    }
+
+    /**
+     * @return - the pool bots run on, or null if each bot runs on its own thread.
+     */
+    ScheduledExecutorService botPool() {
+        return botPool;
+    }
+
+    /**
+     * Stop the bot pool (once every player has terminated).
+     */
+    void shutdown() {
+        if (botPool != null)
+            botPool.shutdownNow();
+    }
+}
@@ -0,0 +1,81 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Counts down the freezes of all players on a single thread. A freeze is just a deadline on the player (enforced
+ * where its key presses are accepted); this thread only refreshes the freeze display every tick, and clears it when
+ * the deadline passes.
+ */
+class FreezeTicker implements Runnable {
+
+    private final Env env;
+    private final Player[] players;
+
+    /**
+     * Players that were just frozen (handed over by the dealer thread).
+     */
+    private final BlockingQueue<Player> frozen = new LinkedBlockingQueue<>();
+
+    /**
+     * The players whose freeze is being counted down, and when each one's display is due (used by this thread only).
+     */
+    private final boolean[] counting;
+    private final long[] nextDisplay;
+
+    private volatile boolean terminate;
+
+    FreezeTicker(Env env, Player[] players) {
+        this.env = env;
+        this.players = players;
+        counting = new boolean[players.length];
+        nextDisplay = new long[players.length];
+    }
+
+    /**
+     * Start counting down the freeze of a player (whose frozenUntil was already set).
+     */
+    void add(Player player) {
+        frozen.add(player);
+    }
+
+    void terminate() {
+        terminate = true;
+    }
+
+    @Override
+    public void run() {
+        env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
+        while (!terminate) {
+            long now = env.clock.currentTimeMillis();
+            long next = Long.MAX_VALUE;
+            for (int id = 0; id < players.length; id++) {
+                if (!counting[id]) continue;
+                long until = players[id].frozenUntil;
+                if (now >= until) {
+                    counting[id] = false;
+                    env.ui.setFreeze(id, 0);
+                    continue;
+                }
+                if (now >= nextDisplay[id]) {
+                    env.ui.setFreeze(id, until - now);
+                    nextDisplay[id] = now + env.config.freezeTickMillis;
+                }
+                next = Math.min(next, Math.min(nextDisplay[id], until));
+            }
+
+            try {
+                Player player = env.clock.poll(frozen, next == Long.MAX_VALUE ? Long.MAX_VALUE : next - now);
+                if (player != null) {
+                    counting[player.id] = true;
+                    nextDisplay[player.id] = env.clock.currentTimeMillis() + env.config.freezeTickMillis; // the freeze was just shown
+                }
+            } catch (InterruptedException ignored) {
+            }
+        }
+        env.logger.info("thread " + Thread.currentThread().getName() + " terminated.");
+    }
+}
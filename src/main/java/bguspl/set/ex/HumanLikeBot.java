@@ -0,0 +1,22 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Finds sets like SetFinderBot, but takes a normally distributed reaction time (of game time) to spot each one.
+ */
+class HumanLikeBot extends SetFinderBot {
+
+    HumanLikeBot(Env env, Table table, Player player) {
+        super(env, table, player);
+    }
+
+    @Override
+    protected long reactionMillis() {
+        double reaction = env.config.botReactionMillis
+                + ThreadLocalRandom.current().nextGaussian() * env.config.botReactionDeviationMillis;
+        return Math.max(0, Math.round(reaction));
+    }
+}
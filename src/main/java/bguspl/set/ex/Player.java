@@ -6,8 +6,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.Queue;
-import java.util.Random;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This class manages the players' threads and data
@@ -41,7 +44,13 @@ public class Player implements Runnable {
      * The thread of the AI (computer) player (an additional thread used to generate
      * key presses).
      */
-    private Thread aiThread;
+    private volatile Thread aiThread;
+
+    /**
+     * The next run of the task generating the key presses of the AI (computer) player, when bots share a pool
+     * (instead of the ai thread).
+     */
+    private volatile ScheduledFuture<?> aiTask;
 
     /**
      * True iff the player is human (not a computer player).
@@ -60,21 +69,28 @@ public class Player implements Runnable {
 
     private final Dealer dealer; // we added
 
-    public volatile int[] tokens; // we added
-
-    public boolean checkMe = false; // we added
+    public volatile boolean checkMe = false; // we added (read by the bot thread too)
 
     boolean isFull = false;
 
-    int tokenCounter = 0;
-
-    public long freezeTime = -1;
+    /**
+     * The game time (env.clock) until which the player is frozen.
+     */
+    public volatile long frozenUntil = Long.MIN_VALUE;
 
     public long sleepEnd;
 
-    public LinkedBlockingQueue<Integer> actions;
+    public final ActionRing actions;
+
+    /**
+     * The reasons a key press is dropped.
+     */
+    public enum Rejection { EMPTY_SLOT, FROZEN, DEALER_BUSY, QUEUE_FULL }
 
-    public Object playerKey;
+    /**
+     * The number of key presses dropped per reason (written by the input thread only).
+     */
+    private final long[] rejected = new long[Rejection.values().length];
 
     /**
      * The class constructor.
@@ -92,11 +108,7 @@ public class Player implements Runnable {
         this.id = id;
         this.human = human;
         this.dealer = dealer; // we added
-        this.actions = new LinkedBlockingQueue<>(env.config.featureSize); // we added
-        playerKey = new Object();
-        tokens = new int[env.config.featureSize];
-        for (int i = 0; i < tokens.length; i++)
-            tokens[i] = -1;
+        this.actions = new ActionRing(env.config.featureSize); // we added
     }
 
     /**
@@ -107,24 +119,21 @@ public class Player implements Runnable {
     public void run() {
         playerThread = Thread.currentThread();
         env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
-        if (!human)
-            createArtificialIntelligence();
-
         synchronized (this) {
             notifyAll();
         }
         // For starting all the threads gracefully.
 
-        while (!terminate) {
+        // started after the handshake, so the ai thread cannot hold this player's lock while the dealer waits for it
+        if (!human)
+            createArtificialIntelligence();
 
-            if (freezeTime >= 0) {
-                setFreezeTime();
-            } else {
-                play();
-            }
-        }
+        // parks in play() until a key is pressed; presses made while the dealer works on the table are turned away in
+        // keyPressed, so there is nothing to wait for here
+        while (!terminate)
+            play();
 
-        if (!human)
+        if (aiThread != null)
             try {
                 aiThread.join();
             } catch (InterruptedException ignored) {
@@ -136,34 +145,84 @@ public class Player implements Runnable {
     /**
      * Creates an additional thread for an AI (computer) player. The main loop of
      * this thread repeatedly generates
-     * key presses. If the queue of key presses is full, the thread waits until it
-     * is not full.
+     * key presses. Presses that do not fit in the queue of key presses are dropped.
+     * The keys are chosen by the configured BotStrategy.
      */
     private void createArtificialIntelligence() {
         // note: this is a very, very smart AI (!)
-        aiThread = new Thread(() -> {
+        BotStrategy strategy = BotStrategy.create(env, table, this);
+        Execution execution = dealer.execution();
+        ScheduledExecutorService pool = execution.botPool();
+        if (pool != null) {
+            aiTask = pool.schedule(new BotTask(strategy, pool), 0, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        aiThread = execution.newThread(() -> {
             env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
             while (!terminate) {
-                synchronized (this) {
-                    try {
-                        while (actions.size() == env.config.featureSize) {
-                            wait();
-                        }
-                    } catch (InterruptedException e) {}
-
-                    Random key = new Random();
-                    int slot = key.nextInt(env.config.tableSize);
-                    keyPressed(slot);
-                    try {
-                        wait(1);
-                    } catch (InterruptedException e) {}
+                try {
+                    pressKey(strategy);
+                } catch (InterruptedException e) {
+                    continue;
                 }
+                try {
+                    // wait out the bot's reaction, if any (the ai thread is its own, so it may block)
+                    long now = env.clock.currentTimeMillis(), readyAt = strategy.readyAt();
+                    if (readyAt > now + 1)
+                        env.clock.sleep(readyAt - now);
+                    else
+                        Thread.sleep(1);
+                } catch (InterruptedException e) {}
             }
             env.logger.info("thread " + Thread.currentThread().getName() + " terminated.");
         }, "computer-" + id);
         aiThread.start();
     }
 
+    /**
+     * Presses one key of the AI (computer) player on the shared bot pool, then schedules its next run: a millisecond
+     * later, or once the bot is done reacting, so that no pool thread ever waits for a bot.
+     */
+    private final class BotTask implements Runnable {
+
+        private final BotStrategy strategy;
+        private final ScheduledExecutorService pool;
+
+        BotTask(BotStrategy strategy, ScheduledExecutorService pool) {
+            this.strategy = strategy;
+            this.pool = pool;
+        }
+
+        @Override
+        public void run() {
+            if (terminate)
+                return;
+            try {
+                pressKey(strategy);
+            } catch (InterruptedException ignored) {
+            }
+            long now = env.clock.currentTimeMillis(), readyAt = strategy.readyAt();
+            if (terminate)
+                return;
+            if (readyAt > now + 1) {
+                env.clock.schedule(pool, this, readyAt - now);
+                return;
+            }
+            try {
+                aiTask = pool.schedule(this, 1, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ignored) {
+                // the game is over
+            }
+        }
+    }
+
+    private void pressKey(BotStrategy strategy) throws InterruptedException {
+        int slot = strategy.nextSlot();
+        if (slot != BotStrategy.NONE)
+            keyPressed(slot);
+    }
+
     /**
      * Called when the game should be terminated.
      */
@@ -172,6 +231,8 @@ public class Player implements Runnable {
         if(this.aiThread != null){
             this.aiThread.interrupt();
         }
+        if (aiTask != null)
+            aiTask.cancel(true);
     }
 
     /**
@@ -180,21 +241,40 @@ public class Player implements Runnable {
      * @param slot - the slot corresponding to the key pressed.
      */
     public void keyPressed(int slot) {
-        synchronized (playerKey) {
-        try {
-        if (freezeTime == -1 && table.slotToCard[slot] != null && !dealer.isWorking) 
-                actions.put(slot);
-        else 
-            playerKey.wait();
-        
-                //while (dealer.isWorking)
-                        //playerKey.wait();
-                    
-                } catch (InterruptedException e) {
-                }
-            }
-        }
-    
+        keyPressed(slot, System.nanoTime());
+    }
+
+    /**
+     * This method is called when a key is pressed. It never blocks: a press that cannot be played now is dropped and
+     * counted (see rejected).
+     *
+     * @param slot      - the slot corresponding to the key pressed.
+     * @param timeNanos - the time the key was pressed (System.nanoTime).
+     * @return - true iff the press was queued for the player thread.
+     */
+    public boolean keyPressed(int slot, long timeNanos) {
+        Rejection rejection = null;
+        if (!table.hasCard(slot))
+            rejection = Rejection.EMPTY_SLOT;
+        else if (isFrozen())
+            rejection = Rejection.FROZEN;
+        else if (dealer.isWorking)
+            rejection = Rejection.DEALER_BUSY;
+        else if (!actions.offer(slot, timeNanos))
+            rejection = Rejection.QUEUE_FULL;
+
+        if (rejection == null)
+            return true;
+        rejected[rejection.ordinal()]++;
+        return false;
+    }
+
+    /**
+     * @return - the number of key presses dropped for the given reason so far.
+     */
+    public long rejected(Rejection reason) {
+        return rejected[reason.ordinal()];
+    }
 
     /**
      * Award a point to a player and perform other related actions.
@@ -207,16 +287,33 @@ public class Player implements Runnable {
         int ignored = table.countCards(); // this part is just for demonstration in the unit tests
 
         env.ui.setScore(id, score);
-        env.ui.setFreeze(id, env.config.pointFreezeMillis);
-        freezeTime = env.config.pointFreezeMillis;
+        freeze(env.config.pointFreezeMillis);
     }
 
     /**
      * Penalize a player and perform other related actions.
      */
     public void penalty() {
-        env.ui.setFreeze(id, env.config.penaltyFreezeMillis);
-        freezeTime = env.config.penaltyFreezeMillis;
+        freeze(env.config.penaltyFreezeMillis);
+    }
+
+    /**
+     * Freeze the player: its key presses are turned away until the deadline, and the dealer's freeze ticker counts
+     * the freeze down on the display.
+     */
+    private void freeze(long millis) {
+        env.ui.setFreeze(id, millis);
+        if (millis <= 0)
+            return;
+        frozenUntil = env.clock.currentTimeMillis() + millis;
+        dealer.frozen(this);
+    }
+
+    /**
+     * return true iff the player is frozen now
+     */
+    public boolean isFrozen() {
+        return env.clock.currentTimeMillis() < frozenUntil;
     }
 
     // get Score
@@ -226,90 +323,68 @@ public class Player implements Runnable {
     // -----------------------------our functions ----------------------------
 
     /**
-     * return the index in tokensArray if there is a token on slot
+     * return true iff the player has a token on slot
      */
-    public int hasToken(int slot) {
-        for (int i = 0; i < tokens.length; i++) {
-            if (tokens[i] == slot) {
-                return i;
-            }
-        }
-        return -1;
+    public boolean hasToken(int slot) {
+        return table.tokens.has(id, slot);
     }
 
-    public void setFreezeTime() {
-        if (freezeTime != -1) {
-            for (long t = freezeTime; t > 0 && !terminate; t -= 1000) {
-                try {
-                    env.ui.setFreeze(this.id, t);
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    env.logger.info("thread " + Thread.currentThread().getName() + " interrupted");
-                    this.terminate();
-                }
-            }
-            if (!terminate) {
-                freezeTime = 0;
-                env.ui.setFreeze(id, freezeTime);
-            }
-            freezeTime = -1;
-        }
+    /**
+     * return the number of tokens the player has on the table
+     */
+    public int tokenCount() {
+        return table.tokens.count(id);
     }
 
     public boolean isHuman() {
         return human;
     }
 
-    public synchronized void play() {
-        while (!actions.isEmpty() && freezeTime == -1 && !dealer.isWorking) {
-            try {
-                int currentSlot = actions.take();
-                // has a token on slot
-                if (table.slotToCard[currentSlot] != null && hasToken(currentSlot) >= 0) {
-                    tokens[hasToken(currentSlot)] = -1; // update the tokens array
-                    table.removeToken(id, currentSlot);
-                    tokenCounter--;
-
-                    // doenst have a token on slot
-                } else if (table.slotToCard[currentSlot] != null && tokenCounter < env.config.featureSize)
-                    placeToken(currentSlot);
-
-            } catch (InterruptedException e) {
-            }
+    public void play() {
+        int currentSlot;
+        try {
+            currentSlot = actions.take(); // parks until a key is pressed
+        } catch (InterruptedException e) {
+            return; // terminating
         }
+        long pressedAt = actions.pressedAt();
+        if (isFrozen())
+            return; // pressed before the freeze started
+
+        // has a token on slot
+        if (table.hasCard(currentSlot) && hasToken(currentSlot)) {
+            synchronized (table.slotLock[currentSlot]) {
+                table.removeToken(id, currentSlot);
+            }
+
+            // doenst have a token on slot
+        } else if (table.hasCard(currentSlot) && tokenCount() < env.config.featureSize)
+            placeToken(currentSlot, pressedAt);
     }
 
-    private void placeToken(int slot) {
+    private void placeToken(int slot, long pressedAt) {
         synchronized(table.slotLock[slot]){
             table.placeToken(id, slot);
-            tokenCounter++;
-        
-
-        // update the tokens array
-        boolean bool = false;
-        for (int i = 0; i < tokens.length && !bool; i++) {
-            if (tokens[i] == -1) {
-                tokens[i] = slot;
-                bool = true;
-
-            }
         }
-    }
 
         // checkMe
-        if (tokenCounter == env.config.featureSize) {
-            synchronized (playerKey) {
-                checkMe = true;
-                try {
-                    while (checkMe)
-                        playerKey.wait();
-                } catch (InterruptedException e) {
-                }
-                synchronized (dealer) {
-                    dealer.notifyAll();
-
-                }
+        // parks rather than waiting on a monitor, which would pin the carrier of a virtual player thread
+        if (tokenCount() == env.config.featureSize) {
+            checkMe = true;
+            dealer.submitClaim(this, pressedAt);
+            while (checkMe) {
+                LockSupport.park(this);
+                if (Thread.interrupted())
+                    break;
             }
         }
     }
+
+    /**
+     * Called by the dealer once the player's claim was handled, to let the player go on.
+     */
+    public void release() {
+        checkMe = false;
+        LockSupport.unpark(playerThread);
+    }
 }
@@ -0,0 +1,22 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Presses a random slot every time.
+ */
+class RandomBot implements BotStrategy {
+
+    private final int tableSize;
+
+    RandomBot(Env env) {
+        this.tableSize = env.config.tableSize;
+    }
+
+    @Override
+    public int nextSlot() {
+        return ThreadLocalRandom.current().nextInt(tableSize);
+    }
+}
@@ -0,0 +1,100 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Looks for a set on the table and presses its slots, lifting any of the player's tokens that are not part of it
+ * first. Presses one key at a time and only once the previous press was played, so every decision is made on the
+ * player's actual tokens.
+ */
+class SetFinderBot implements BotStrategy {
+
+    protected final Env env;
+    private final Table table;
+    private final Player player;
+
+    /**
+     * The set the bot is claiming: its cards and the slots they were in (valid iff hasTarget).
+     */
+    private final int[] targetCards;
+    private final int[] targetSlots;
+    private boolean hasTarget;
+
+    /**
+     * The game time until which the bot is still reacting to the target, and presses nothing.
+     */
+    private long readyAt = Long.MIN_VALUE;
+
+    SetFinderBot(Env env, Table table, Player player) {
+        this.env = env;
+        this.table = table;
+        this.player = player;
+        targetCards = new int[env.config.featureSize];
+        targetSlots = new int[env.config.featureSize];
+    }
+
+    @Override
+    public int nextSlot() throws InterruptedException {
+        if (player.checkMe || !player.actions.isEmpty()) return NONE; // the tokens are about to change
+
+        if (!targetOnTable()) {
+            if (!findTarget()) return NONE;
+            readyAt = env.clock.currentTimeMillis() + reactionMillis();
+        }
+        if (env.clock.currentTimeMillis() < readyAt) return NONE; // still reacting (the target is checked again then)
+
+        for (int slot = table.tokens.nextSlot(player.id, 0); slot >= 0; slot = table.tokens.nextSlot(player.id, slot + 1))
+            if (!isTargetSlot(slot)) return slot;
+        for (int slot : targetSlots)
+            if (!player.hasToken(slot)) return slot;
+        return NONE; // every token is in place: the claim is on its way
+    }
+
+    @Override
+    public long readyAt() {
+        return readyAt;
+    }
+
+    /**
+     * Called when a new set was found, before any of its slots is pressed.
+     * @return - how long (in game time) the bot takes to react to the set before pressing its slots.
+     */
+    protected long reactionMillis() {
+        return 0;
+    }
+
+    /**
+     * Picks one of the sets in the table's current snapshot, at random so that bots do not all go for the same set.
+     * @return - true iff there was a set (and it is now the target).
+     */
+    private boolean findTarget() {
+        hasTarget = false;
+        TableSnapshot snapshot = table.snapshot();
+        List<int[]> sets = snapshot.sets();
+        if (sets.isEmpty()) return false;
+
+        int[] set = sets.get(ThreadLocalRandom.current().nextInt(sets.size()));
+        for (int i = 0; i < targetCards.length; i++) {
+            targetCards[i] = set[i];
+            targetSlots[i] = snapshot.slotOf(set[i]);
+        }
+        hasTarget = true;
+        return true;
+    }
+
+    private boolean targetOnTable() {
+        if (!hasTarget) return false;
+        for (int i = 0; i < targetSlots.length; i++)
+            if (table.cardAt(targetSlots[i]) != targetCards[i]) return hasTarget = false;
+        return true;
+    }
+
+    private boolean isTargetSlot(int slot) {
+        for (int target : targetSlots)
+            if (target == slot) return true;
+        return false;
+    }
+}
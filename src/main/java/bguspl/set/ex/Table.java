@@ -1,10 +1,19 @@
 package bguspl.set.ex;
 
 import bguspl.set.Env;
+import bguspl.set.TokenBitmap;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +40,57 @@ public class Table {
 
     public Object[] slotLock; 
 
+    /**
+     * The value of cardAt for an empty slot.
+     */
+    public static final int NO_CARD = -1;
+
+    /**
+     * The card in each slot (NO_CARD if none), read by the player, bot and dealer threads without locking.
+     * Kept in step with slotToCard, which the dealer changes under the table's lock.
+     */
+    private final AtomicIntegerArray slotCards;
+
+    /**
+     * The number of times the card in each slot changed.
+     */
+    private final AtomicLongArray slotVersions;
+
+    /**
+     * A sequence lock over the table: twice the number of changes made to the table (the epoch), plus one while a
+     * change is being made.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The latest snapshot taken of the table (replaced only once the table changed since).
+     */
+    private final AtomicReference<TableSnapshot> published = new AtomicReference<>();
+
+    /**
+     * The players' tokens on the slots (changed under the slot's lock).
+     */
+    public final TokenBitmap tokens;
+
+    /**
+     * The legal sets (sorted card ids) among the cards currently on the table.
+     * Maintained incrementally by placeCard and removeCard; readers iterate over a consistent snapshot.
+     */
+    private final List<int[]> liveSets = new CopyOnWriteArrayList<>();
+
+    /**
+     * Scratch buffers for indexing the sets of a newly placed card (used only by the thread placing cards).
+     */
+    private final int[] otherCards;
+    private final int[] candidate;
+    private final int[] combination;
+
+    /**
+     * The sets found while placing cards, added to liveSets all at once when the placing is done (each addition
+     * copies the whole list).
+     */
+    private final List<int[]> foundSets = new ArrayList<>();
+
     /**
      * Constructor for testing.
      *
@@ -46,6 +106,19 @@ public class Table {
         slotLock = new Object[env.config.tableSize];
         for(int i = 0; i < slotLock.length; i++)
             slotLock[i] = new Object();
+
+        tokens = new TokenBitmap(env.config.players, env.config.tableSize);
+        slotCards = new AtomicIntegerArray(slotToCard.length);
+        slotVersions = new AtomicLongArray(slotToCard.length);
+        for (int slot = 0; slot < slotToCard.length; slot++)
+            slotCards.set(slot, slotToCard[slot] == null ? NO_CARD : slotToCard[slot]);
+        otherCards = new int[env.config.tableSize];
+        candidate = new int[env.config.featureSize];
+        combination = new int[Math.max(env.config.featureSize - 1, 0)];
+        for (int slot = 0; slot < slotToCard.length; slot++)
+            if (slotToCard[slot] != null)
+                indexSetsWith(slot, slot);
+        publishFoundSets();
     }
 
     /**
@@ -61,15 +134,165 @@ public class Table {
      * This method prints all possible legal sets of cards that are currently on the table.
      */
     public void hints() {
-        List<Integer> deck = Arrays.stream(slotToCard).filter(Objects::nonNull).collect(Collectors.toList());
-        env.util.findSets(deck, Integer.MAX_VALUE).forEach(set -> {
+        TableSnapshot snapshot = snapshot();
+        snapshot.sets().forEach(set -> {
             StringBuilder sb = new StringBuilder().append("Hint: Set found: ");
-            List<Integer> slots = Arrays.stream(set).mapToObj(card -> cardToSlot[card]).sorted().collect(Collectors.toList());
+            List<Integer> slots = Arrays.stream(set).mapToObj(snapshot::slotOf).sorted().collect(Collectors.toList());
             int[][] features = env.util.cardsToFeatures(set);
             System.out.println(sb.append("slots: ").append(slots).append(" features: ").append(Arrays.deepToString(features)));
         });
     }
 
+    /**
+     * @return - true iff there is at least one legal set among the cards on the table.
+     */
+    public boolean hasSet() {
+        return !liveSets.isEmpty();
+    }
+
+    /**
+     * @return - the number of legal sets among the cards on the table.
+     */
+    public int setCount() {
+        return liveSets.size();
+    }
+
+    /**
+     * Iterates over the legal sets on the table, as they were when the iteration started.
+     *
+     * @return - an iterator over the sets (each one an array of sorted card ids).
+     */
+    public Iterator<int[]> sets() {
+        return Collections.unmodifiableList(liveSets).iterator();
+    }
+
+    /**
+     * @param slot - the slot.
+     * @return - the card in the slot, or NO_CARD if the slot is empty.
+     */
+    public int cardAt(int slot) {
+        return slotCards.get(slot);
+    }
+
+    /**
+     * @param slot - the slot.
+     * @return - true iff there is a card in the slot.
+     */
+    public boolean hasCard(int slot) {
+        return slotCards.get(slot) != NO_CARD;
+    }
+
+    /**
+     * @param slot - the slot.
+     * @return - the number of times the card in the slot changed (placed or removed).
+     */
+    public long version(int slot) {
+        return slotVersions.get(slot);
+    }
+
+    /**
+     * @return - the number of changes made to the table so far (placing several cards, or clearing the table,
+     * counts as one).
+     */
+    public long epoch() {
+        return sequence.get() >>> 1;
+    }
+
+    /**
+     * Copies the cards in all the slots as they were at a single moment, without locking.
+     * @param cards    - filled with the card in each slot (NO_CARD if none).
+     * @param versions - filled with the version of each slot (may be null).
+     * @return - the epoch of the copy.
+     */
+    public long snapshot(int[] cards, long[] versions) {
+        while (true) {
+            long before = sequence.get();
+            if ((before & 1) == 0) {
+                for (int slot = 0; slot < cards.length; slot++)
+                    cards[slot] = slotCards.get(slot);
+                if (versions != null)
+                    for (int slot = 0; slot < versions.length; slot++)
+                        versions[slot] = slotVersions.get(slot);
+                if (sequence.get() == before)
+                    return before >>> 1;
+            }
+            Thread.yield(); // the dealer is in the middle of a change
+        }
+    }
+
+    /**
+     * Copies the cards in some of the slots as they were at a single moment, without locking.
+     * @param slots    - the slots to read.
+     * @param cards    - filled with the card in each of the slots (NO_CARD if none).
+     * @param versions - filled with the version of each of the slots.
+     * @return - the epoch of the copy.
+     */
+    public long read(int[] slots, int[] cards, long[] versions) {
+        while (true) {
+            long before = sequence.get();
+            if ((before & 1) == 0) {
+                for (int i = 0; i < slots.length; i++) {
+                    cards[i] = slotCards.get(slots[i]);
+                    versions[i] = slotVersions.get(slots[i]);
+                }
+                if (sequence.get() == before)
+                    return before >>> 1;
+            }
+            Thread.yield(); // the dealer is in the middle of a change
+        }
+    }
+
+    /**
+     * Returns an immutable snapshot of the table, without locking. Threads reading the table at the same epoch
+     * share one snapshot: a new one is taken only when the table changed since the last.
+     *
+     * @return - the cards and the legal sets on the table, as they were at a single epoch.
+     */
+    public TableSnapshot snapshot() {
+        TableSnapshot current = published.get();
+        while (true) {
+            long before = sequence.get();
+            if ((before & 1) == 0) {
+                if (current != null && current.epoch() == before >>> 1)
+                    return current;
+                int[] cards = new int[slotCards.length()];
+                for (int slot = 0; slot < cards.length; slot++)
+                    cards[slot] = slotCards.get(slot);
+                int[][] sets = liveSets.toArray(new int[0][]);
+                if (sequence.get() == before) {
+                    current = new TableSnapshot(before >>> 1, cards, cardToSlot.length, sets);
+                    publish(current);
+                    return current;
+                }
+            }
+            Thread.yield(); // the dealer is in the middle of a change
+        }
+    }
+
+    /**
+     * Publishes a snapshot, unless a newer one was published by another reader in the meantime.
+     */
+    private void publish(TableSnapshot snapshot) {
+        TableSnapshot current;
+        do {
+            current = published.get();
+            if (current != null && current.epoch() >= snapshot.epoch())
+                return;
+        } while (!published.compareAndSet(current, snapshot));
+    }
+
+    /**
+     * @param slots    - the slots.
+     * @param versions - the version each slot is expected to have.
+     * @return - true iff none of the slots changed since it had the expected version.
+     */
+    public boolean isCurrent(int[] slots, long[] versions) {
+        for (int i = 0; i < slots.length; i++)
+            if (slotVersions.get(slots[i]) != versions[i])
+                return false;
+        return true;
+    }
+
     /**
      * Count the number of cards currently on the table.
      *
@@ -91,33 +314,104 @@ public class Table {
      * @post - the card placed is on the table, in the assigned slot.
      */
     public void placeCard(int card, int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
+        delay();
 
         //synchronized(slotLock[slot]){
-        cardToSlot[card] = slot;
-        slotToCard[slot] = card;
+        synchronized (this) {
+            sequence.incrementAndGet();
+            setCard(card, slot);
+            publishFoundSets();
+            sequence.incrementAndGet();
+        }
         env.ui.placeCard(card, slot);
         //}
     }
 
+    /**
+     * Places several cards on the table at once: the table delay is applied once and the ui is updated once.
+     * @param cards - the card ids to place.
+     * @param slots - the slots in which the cards should be placed (cards[i] is placed in slots[i]).
+     *
+     * @post - all the cards are on the table, in their assigned slots.
+     */
+    public void placeCards(int[] cards, int[] slots) {
+        delay();
+
+        synchronized (this) {
+            sequence.incrementAndGet();
+            for (int i = 0; i < cards.length; i++)
+                setCard(cards[i], slots[i]);
+            publishFoundSets();
+            sequence.incrementAndGet();
+        }
+        env.ui.placeCards(cards, slots);
+    }
+
     /**
      * Removes a card from a grid slot on the table.
      * @param slot - the slot from which to remove the card.
      */
     public void removeCard(int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
+        delay();
 
         //synchronized(slotLock[slot]){
-        cardToSlot[slotToCard[slot]] = null;
-        slotToCard[slot] = null;
+        synchronized (this) {
+            if (slotToCard[slot] == null)
+                return;
+            sequence.incrementAndGet();
+            unindexSetsWith(slotToCard[slot]);
+            cardToSlot[slotToCard[slot]] = null;
+            slotToCard[slot] = null;
+            slotCards.set(slot, NO_CARD);
+            slotVersions.incrementAndGet(slot);
+            sequence.incrementAndGet();
+        }
         env.ui.removeCard(slot);
         //}
     }
 
+    /**
+     * Removes all the cards from the table at once: the table delay is applied once and the ui is updated once.
+     *
+     * @post - there are no cards on the table.
+     */
+    public void clearTable() {
+        delay();
+
+        synchronized (this) {
+            sequence.incrementAndGet();
+            for (int slot = 0; slot < slotToCard.length; slot++) {
+                if (slotToCard[slot] != null) {
+                    cardToSlot[slotToCard[slot]] = null;
+                    slotToCard[slot] = null;
+                    slotCards.set(slot, NO_CARD);
+                    slotVersions.incrementAndGet(slot);
+                }
+            }
+            liveSets.clear();
+            sequence.incrementAndGet();
+        }
+        env.ui.removeCards();
+    }
+
+    private void delay() {
+        try {
+            env.clock.sleep(env.config.tableDelayMillis);
+        } catch (InterruptedException ignored) {}
+    }
+
+    private void setCard(int card, int slot) {
+        if (slotToCard[slot] != null) {
+            unindexSetsWith(slotToCard[slot]);
+            cardToSlot[slotToCard[slot]] = null;
+        }
+        cardToSlot[card] = slot;
+        slotToCard[slot] = card;
+        slotCards.set(slot, card);
+        slotVersions.incrementAndGet(slot);
+        indexSetsWith(slot, env.config.tableSize);
+    }
+
     /**
      * Places a player token on a grid slot.
      * @param player - the player the token belongs to.
@@ -125,8 +419,14 @@ public class Table {
      */
     public void placeToken(int player, int slot) {
         //synchronized(slotLock[slot]) {
-            if (slotToCard[slot] != null)
-                env.ui.placeToken(player, slot);
+            long version = slotVersions.get(slot);
+            if (!hasCard(slot) || !tokens.place(player, slot))
+                return;
+            if (slotVersions.get(slot) != version) {
+                tokens.remove(player, slot); // the card left while the token was placed, and its tokens may be gone
+                return;
+            }
+            env.ui.placeToken(player, slot);
         //}
     }
     /**
@@ -137,8 +437,102 @@ public class Table {
      */
     public boolean removeToken(int player, int slot) {
         //synchronized(slotLock[slot]) {
+            if (!tokens.remove(player, slot))
+                return false;
             env.ui.removeToken(player, slot);
             return true;
         //}
     }
+
+    /**
+     * Removes the tokens of all players from a grid slot.
+     * @param slot - the slot from which to remove the tokens.
+     */
+    public void removeTokens(int slot) {
+        if (tokens.clearSlot(slot))
+            env.ui.removeTokens(slot);
+    }
+
+    /**
+     * Removes all the tokens from the table.
+     */
+    public void removeTokens() {
+        tokens.clear();
+        env.ui.removeTokens();
+    }
+
+    /**
+     * Finds every legal set made of the card in the given slot and the cards in the slots before limit, and keeps it
+     * in foundSets until publishFoundSets is called.
+     * @param slot  - the slot of the newly placed card.
+     * @param limit - only cards in slots lower than this are combined with the new card.
+     */
+    private void indexSetsWith(int slot, int limit) {
+        int card = slotToCard[slot];
+        int others = 0;
+        for (int i = 0; i < limit; i++)
+            if (i != slot && slotToCard[i] != null)
+                otherCards[others++] = slotToCard[i];
+
+        if (env.config.featureSize == 3) {
+            // two cards determine the third: look it up for each other card instead of testing every pair
+            for (int i = 0; i < others; i++) {
+                int third = env.util.thirdCard(card, otherCards[i]);
+                if (third <= otherCards[i] || third >= cardToSlot.length)
+                    continue; // each pair of other cards once
+                Integer thirdSlot = cardToSlot[third];
+                if (thirdSlot != null && thirdSlot < limit) {
+                    int[] set = {card, otherCards[i], third};
+                    Arrays.sort(set);
+                    foundSets.add(set);
+                }
+            }
+            return;
+        }
+
+        // walk all the combinations of featureSize - 1 other cards in lexicographic order
+        int r = candidate.length - 1;
+        if (r < 1 || others < r) return;
+        for (int i = 0; i < r; i++)
+            combination[i] = i;
+
+        while (combination[r - 1] < others) {
+            for (int i = 0; i < r; i++)
+                candidate[i] = otherCards[combination[i]];
+            candidate[r] = card;
+            if (env.util.testSet(candidate)) {
+                int[] set = candidate.clone();
+                Arrays.sort(set);
+                foundSets.add(set);
+            }
+
+            int t = r - 1;
+            while (t != 0 && combination[t] == others - r + t) --t;
+            combination[t]++;
+            for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
+        }
+    }
+
+    /**
+     * Adds the sets found since the last call to the set index, in a single copy of the index.
+     */
+    private void publishFoundSets() {
+        if (foundSets.isEmpty()) return;
+        liveSets.addAll(foundSets);
+        foundSets.clear();
+    }
+
+    /**
+     * Removes from the set index every set containing the given card.
+     * @param card - the card leaving the table.
+     */
+    private void unindexSetsWith(int card) {
+        Predicate<int[]> contains = set -> {
+            for (int c : set)
+                if (c == card) return true;
+            return false;
+        };
+        liveSets.removeIf(contains);
+        foundSets.removeIf(contains); // found earlier in the same placing
+    }
 }
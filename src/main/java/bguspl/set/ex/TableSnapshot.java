@@ -0,0 +1,97 @@
+package bguspl.set.ex;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable copy of the table at a single epoch: the card in each slot and the legal sets among them.
+ * A snapshot is shared by all the threads that read the table at the same epoch, so it must never be changed,
+ * including the card arrays of its sets.
+ */
+public final class TableSnapshot {
+
+    /**
+     * The epoch of the table when the snapshot was taken.
+     */
+    private final long epoch;
+
+    /**
+     * The card in each slot (Table.NO_CARD if none).
+     */
+    private final int[] slotToCard;
+
+    /**
+     * The slot of each card on the table (-1 if the card is not on the table).
+     */
+    private final int[] cardToSlot;
+
+    /**
+     * The number of cards on the table.
+     */
+    private final int cardCount;
+
+    /**
+     * The legal sets on the table (sorted card ids).
+     */
+    private final List<int[]> sets;
+
+    TableSnapshot(long epoch, int[] slotToCard, int deckSize, int[][] sets) {
+        this.epoch = epoch;
+        this.slotToCard = slotToCard;
+        this.cardToSlot = new int[deckSize];
+        Arrays.fill(cardToSlot, -1);
+        int count = 0;
+        for (int slot = 0; slot < slotToCard.length; slot++)
+            if (slotToCard[slot] != Table.NO_CARD) {
+                cardToSlot[slotToCard[slot]] = slot;
+                count++;
+            }
+        this.cardCount = count;
+        this.sets = Collections.unmodifiableList(Arrays.asList(sets));
+    }
+
+    /**
+     * @return - the epoch of the table when the snapshot was taken.
+     */
+    public long epoch() {
+        return epoch;
+    }
+
+    /**
+     * @return - the number of slots on the table.
+     */
+    public int tableSize() {
+        return slotToCard.length;
+    }
+
+    /**
+     * @param slot - the slot.
+     * @return - the card in the slot, or Table.NO_CARD if the slot was empty.
+     */
+    public int cardAt(int slot) {
+        return slotToCard[slot];
+    }
+
+    /**
+     * @param card - the card.
+     * @return - the slot the card was in, or -1 if it was not on the table.
+     */
+    public int slotOf(int card) {
+        return cardToSlot[card];
+    }
+
+    /**
+     * @return - the number of cards on the table.
+     */
+    public int cardCount() {
+        return cardCount;
+    }
+
+    /**
+     * @return - the legal sets on the table, each one an array of sorted card ids (not to be modified).
+     */
+    public List<int[]> sets() {
+        return sets;
+    }
+}
@@ -0,0 +1,68 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CardImageCacheTest {
+
+    private final AtomicInteger decoded = new AtomicInteger();
+    private final BlockingQueue<Integer> loaded = new LinkedBlockingQueue<>();
+    private CardImageCache cache;
+
+    private CardImageCache cache(int capacity) {
+        cache = new CardImageCache(Logger.getLogger("CardImageCacheTest"), capacity, card -> {
+            decoded.incrementAndGet();
+            return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        }, loaded::add);
+        return cache;
+    }
+
+    private void awaitLoaded(int card) throws InterruptedException {
+        assertEquals(card, (int) loaded.poll(5, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void get_DecodesInTheBackgroundOnce() throws InterruptedException {
+        CardImageCache cache = cache(4);
+        assertNull(cache.get(7));
+        awaitLoaded(7);
+
+        assertNotNull(cache.get(7));
+        cache.prefetch(7);
+        assertEquals(1, decoded.get());
+    }
+
+    @Test
+    void capacity_EvictsLeastRecentlyUsed() throws InterruptedException {
+        CardImageCache cache = cache(2);
+        cache.prefetch(0);
+        cache.prefetch(1);
+        awaitLoaded(0);
+        awaitLoaded(1);
+
+        assertNotNull(cache.get(0)); // 1 is now the least recently used
+        cache.prefetch(2);
+        awaitLoaded(2);
+
+        assertNotNull(cache.get(0));
+        assertNull(cache.get(1));
+        awaitLoaded(1);
+        assertEquals(4, decoded.get());
+    }
+}
@@ -0,0 +1,55 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CardRendererTest {
+
+    private static Config config(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        properties.put("CellWidth", "120");
+        properties.put("CellHeight", "80");
+        properties.put("PlayerKeys1", "");
+        properties.put("PlayerKeys2", "");
+        return new Config(Logger.getLogger("CardRendererTest"), properties);
+    }
+
+    private static boolean samePixels(BufferedImage a, BufferedImage b) {
+        for (int y = 0; y < a.getHeight(); y++)
+            for (int x = 0; x < a.getWidth(); x++)
+                if (a.getRGB(x, y) != b.getRGB(x, y)) return false;
+        return true;
+    }
+
+    @Test
+    void render_EveryCardOfTheClassicDeckLooksDifferent() {
+        Config config = config(3, 4);
+        CardRenderer renderer = new CardRenderer(config, new UtilImpl(config));
+        BufferedImage[] images = new BufferedImage[config.deckSize];
+        for (int card = 0; card < images.length; card++) {
+            images[card] = renderer.render(card);
+            assertEquals(config.cellWidth, images[card].getWidth());
+            assertEquals(config.cellHeight, images[card].getHeight());
+        }
+        for (int card = 0; card < images.length; card++)
+            for (int other = card + 1; other < images.length; other++)
+                assertFalse(samePixels(images[card], images[other]), card + " looks like " + other);
+    }
+
+    @Test
+    void render_DecksWithoutPictureFiles() {
+        // 13 values per feature and 6 features: more values than picture file names allow, and features without a drawing
+        Config config = config(13, 6);
+        CardRenderer renderer = new CardRenderer(config, new UtilImpl(config));
+        assertFalse(samePixels(renderer.render(0), renderer.render(config.deckSize - 1)));
+        assertFalse(samePixels(renderer.render(0), renderer.render(1))); // differ only in the last feature
+    }
+}
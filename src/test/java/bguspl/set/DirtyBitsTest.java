@@ -0,0 +1,45 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirtyBitsTest {
+
+    private static List<Integer> drain(DirtyBits bits) {
+        List<Integer> drained = new ArrayList<>();
+        bits.drain(drained::add);
+        return drained;
+    }
+
+    @Test
+    void drain_EachMarkedIndexOnceInOrder() {
+        DirtyBits bits = new DirtyBits(100);
+        bits.mark(70);
+        bits.mark(3);
+        bits.mark(70);
+        bits.mark(64);
+
+        assertEquals(Arrays.asList(3, 64, 70), drain(bits));
+        assertFalse(bits.drain(index -> {}));
+    }
+
+    @Test
+    void markAll_MarksOnlyExistingIndices() {
+        DirtyBits bits = new DirtyBits(66);
+        bits.markAll();
+
+        List<Integer> drained = drain(bits);
+        assertEquals(66, drained.size());
+        assertEquals(65, (int) drained.get(65));
+
+        bits.mark(0);
+        assertTrue(bits.drain(index -> {}));
+    }
+}
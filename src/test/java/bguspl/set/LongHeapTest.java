@@ -0,0 +1,56 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHeapTest {
+
+    @Test
+    void peek_SmallestValueAsValuesComeAndGo() {
+        LongHeap heap = new LongHeap();
+        heap.add(5);
+        heap.add(3);
+        heap.add(9);
+        heap.add(3);
+        assertEquals(3, heap.peek());
+
+        assertTrue(heap.remove(3));
+        assertEquals(3, heap.peek());
+        assertTrue(heap.remove(3));
+        assertEquals(5, heap.peek());
+        assertFalse(heap.remove(3));
+
+        assertTrue(heap.remove(5));
+        assertTrue(heap.remove(9));
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void remove_KeepsTheHeapOrdered() {
+        LongHeap heap = new LongHeap();
+        Random random = new Random(42);
+        long[] values = new long[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(50);
+            heap.add(values[i]);
+        }
+        for (int i = 0; i < values.length; i += 2) // every other one, from inside the heap
+            assertTrue(heap.remove(values[i]));
+
+        long previous = Long.MIN_VALUE;
+        int count = 0;
+        while (!heap.isEmpty()) {
+            long smallest = heap.peek();
+            assertTrue(smallest >= previous);
+            heap.remove(smallest);
+            previous = smallest;
+            count++;
+        }
+        assertEquals(values.length / 2, count);
+    }
+}
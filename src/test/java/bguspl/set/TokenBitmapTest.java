@@ -0,0 +1,87 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBitmapTest {
+
+    @Test
+    void placeAndRemove() {
+        TokenBitmap tokens = new TokenBitmap(2, 12);
+        assertTrue(tokens.place(1, 5));
+        assertFalse(tokens.place(1, 5));
+        assertTrue(tokens.has(1, 5));
+        assertFalse(tokens.has(0, 5));
+        assertTrue(tokens.occupied(5));
+        assertEquals(1, tokens.count(1));
+
+        assertTrue(tokens.remove(1, 5));
+        assertFalse(tokens.remove(1, 5));
+        assertFalse(tokens.occupied(5));
+        assertEquals(0, tokens.count(1));
+    }
+
+    @Test
+    void clearSlot_RemovesEveryPlayersToken() {
+        TokenBitmap tokens = new TokenBitmap(3, 12);
+        for (int player = 0; player < 3; player++) {
+            tokens.place(player, 4);
+            tokens.place(player, player);
+        }
+        assertTrue(tokens.clearSlot(4));
+        assertFalse(tokens.clearSlot(4));
+        for (int player = 0; player < 3; player++) {
+            assertFalse(tokens.has(player, 4));
+            assertTrue(tokens.has(player, player));
+            assertEquals(1, tokens.count(player));
+        }
+    }
+
+    @Test
+    void spansSeveralWords() {
+        // more than 64 slots and players
+        TokenBitmap tokens = new TokenBitmap(130, 200);
+        int[] slots = {0, 63, 64, 127, 199};
+        for (int slot : slots)
+            tokens.place(129, slot);
+        tokens.place(70, 64);
+
+        int[] found = new int[8];
+        assertEquals(slots.length, tokens.slotsOf(129, found));
+        assertArrayEquals(slots, Arrays.copyOf(found, slots.length));
+        assertEquals(slots.length, tokens.count(129));
+
+        assertEquals(70, tokens.nextPlayer(64, 0));
+        assertEquals(129, tokens.nextPlayer(64, 71));
+        assertEquals(-1, tokens.nextPlayer(64, 130));
+
+        tokens.clearSlot(64);
+        assertEquals(-1, tokens.nextPlayer(64, 0));
+        assertEquals(slots.length - 1, tokens.count(129));
+        assertEquals(0, tokens.count(70));
+
+        tokens.clear();
+        assertEquals(-1, tokens.nextSlot(129, 0));
+    }
+
+    @Test
+    void playersOn_CopiesTheSlotMask() {
+        TokenBitmap tokens = new TokenBitmap(70, 4);
+        assertEquals(2, tokens.playerWords());
+        tokens.place(1, 2);
+        tokens.place(65, 2);
+        tokens.place(3, 1);
+
+        long[] mask = new long[tokens.playerWords()];
+        tokens.playersOn(2, mask);
+        assertArrayEquals(new long[]{1L << 1, 1L << 1}, mask);
+        tokens.playersOn(0, mask);
+        assertArrayEquals(new long[]{0, 0}, mask);
+    }
+}
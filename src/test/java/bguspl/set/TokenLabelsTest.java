@@ -0,0 +1,41 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TokenLabelsTest {
+
+    private static String[] names(int players) {
+        String[] names = new String[players];
+        for (int i = 0; i < players; i++)
+            names[i] = "P" + i;
+        return names;
+    }
+
+    @Test
+    void get_NamesInPlayerOrder() {
+        TokenLabels labels = new TokenLabels(names(4), 1);
+        assertEquals("", labels.get(new long[]{0}));
+        assertEquals("P2", labels.get(new long[]{0b100}));
+        assertEquals("P0, P1, P3", labels.get(new long[]{0b1011}));
+    }
+
+    @Test
+    void get_CachedPerMask() {
+        TokenLabels labels = new TokenLabels(names(4), 1);
+        long[] mask = {0b110};
+        String label = labels.get(mask);
+        assertSame(label, labels.get(new long[]{0b110}));
+        assertEquals("P1", labels.get(new long[]{0b10}));
+        assertEquals(label, labels.get(mask));
+    }
+
+    @Test
+    void get_MoreThan64Players() {
+        TokenLabels labels = new TokenLabels(names(100), 2);
+        assertEquals("P0, P64, P99", labels.get(new long[]{1, (1L << 0) | (1L << 35)}));
+        assertEquals("P64", labels.get(new long[]{0, 1}));
+    }
+}
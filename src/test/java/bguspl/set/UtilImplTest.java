@@ -0,0 +1,205 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UtilImplTest {
+
+    Config config;
+    UtilImpl util;
+
+    private static Config config(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        properties.put("PlayerKeys1", "");
+        properties.put("PlayerKeys2", "");
+        return new Config(Logger.getLogger("UtilImplTest"), properties);
+    }
+
+    @BeforeEach
+    void setUp() {
+        config = config(3, 4);
+        util = new UtilImpl(config);
+    }
+
+    /**
+     * A straightforward implementation of the set rules, to compare the optimized implementation against.
+     */
+    private static boolean isSet(int[][] features) {
+        for (int i = 0; i < features[0].length; ++i) {
+            int same = 0, different = 0;
+            for (int j = 0; j < features.length; ++j)
+                for (int k = j + 1; k < features.length; ++k)
+                    if (features[j][i] == features[k][i]) ++same;
+                    else ++different;
+            if (same != 0 && different != 0) return false;
+        }
+        return true;
+    }
+
+    @Test
+    void testSet_KnownSets() {
+        // 0000, 1111, 2222: all features are different
+        assertTrue(util.testSet(new int[]{0, 40, 80}));
+        // 0000, 0001, 0002: three features are the same, one is different
+        assertTrue(util.testSet(new int[]{0, 1, 2}));
+        // 0000, 0001, 0010: the last feature is neither the same nor different
+        assertFalse(util.testSet(new int[]{0, 1, 3}));
+    }
+
+    @Test
+    void testSet_MatchesRulesOnAllTriples() {
+        int[] cards = new int[config.featureSize];
+        for (cards[0] = 0; cards[0] < config.deckSize; ++cards[0])
+            for (cards[1] = cards[0] + 1; cards[1] < config.deckSize; ++cards[1])
+                for (cards[2] = cards[1] + 1; cards[2] < config.deckSize; ++cards[2])
+                    assertEquals(isSet(util.cardsToFeatures(cards)), util.testSet(cards));
+    }
+
+    @Test
+    void thirdCard_CompletesEveryPairToASet() {
+        for (int first = 0; first < config.deckSize; ++first)
+            for (int second = first + 1; second < config.deckSize; ++second) {
+                int third = util.thirdCard(first, second);
+                assertTrue(third != first && third != second);
+                assertTrue(util.testSet(new int[]{first, second, third}));
+            }
+        assertEquals(-1, new UtilImpl(config(4, 3)).thirdCard(0, 1));
+    }
+
+    @Test
+    void testSet_WideFeaturesFallBackToUnpacked() {
+        // 5 features of 13 values do not fit in a single long
+        Config wide = config(13, 5);
+        UtilImpl wideUtil = new UtilImpl(wide);
+        int[] same = new int[wide.featureSize];
+        int[] mixed = new int[wide.featureSize];
+        for (int i = 0; i < wide.featureSize; ++i) {
+            same[i] = i;
+            mixed[i] = i * (wide.featureSize + 1);
+        }
+        mixed[1] = 0;
+        assertEquals(isSet(wideUtil.cardsToFeatures(same)), wideUtil.testSet(same));
+        assertTrue(wideUtil.testSet(same));
+        assertFalse(wideUtil.testSet(mixed));
+    }
+
+    /**
+     * Collects every triple of the deck that passes testSet, as sorted card ids.
+     */
+    private Set<String> allTriples(List<Integer> deck) {
+        Set<String> sets = new TreeSet<>();
+        for (int i = 0; i < deck.size(); ++i)
+            for (int j = i + 1; j < deck.size(); ++j)
+                for (int k = j + 1; k < deck.size(); ++k) {
+                    int[] cards = {deck.get(i), deck.get(j), deck.get(k)};
+                    Arrays.sort(cards);
+                    if (util.testSet(cards)) sets.add(Arrays.toString(cards));
+                }
+        return sets;
+    }
+
+    private static Set<String> asStrings(List<int[]> sets) {
+        return sets.stream().map(Arrays::toString).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    @Test
+    void findSets_WholeDeck() {
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        List<int[]> sets = util.findSets(deck, Integer.MAX_VALUE);
+
+        // every pair of cards in a 3^4 deck is completed by exactly one card: 81 * 80 / 6 sets
+        assertEquals(1080, sets.size());
+        assertEquals(allTriples(deck), asStrings(sets));
+    }
+
+    @Test
+    void findSets_PartialDeck() {
+        List<Integer> deck = Arrays.asList(80, 3, 41, 17, 0, 62, 25, 9, 54, 70, 33, 12);
+        assertEquals(allTriples(deck), asStrings(util.findSets(deck, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void findSets_StopsAtCount() {
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        assertEquals(1, util.findSets(deck, 1).size());
+        assertEquals(7, util.findSets(deck, 7).size());
+        assertTrue(util.findSets(Arrays.asList(0, 1, 3), 1).isEmpty());
+    }
+
+    @Test
+    void findSets_PrimitiveMatchesList() {
+        int[] deck = {80, 3, 41, 17, 0, 62, 25, 9, 54, 70, 33, 12, 1, 2};
+        List<int[]> expected = util.findSets(Arrays.stream(deck).boxed().collect(Collectors.toList()), Integer.MAX_VALUE);
+
+        int[] buffer = new int[expected.size() * config.featureSize];
+        assertEquals(expected.size(), util.findSets(deck, deck.length, Integer.MAX_VALUE, buffer));
+        for (int i = 0; i < expected.size(); ++i)
+            assertArrayEquals(expected.get(i), Arrays.copyOfRange(buffer, i * config.featureSize, (i + 1) * config.featureSize));
+
+        // counting only, and searching a prefix of the array
+        assertEquals(expected.size(), util.findSets(deck, deck.length, Integer.MAX_VALUE, null));
+        assertEquals(0, util.findSets(deck, 2, Integer.MAX_VALUE, null));
+        assertEquals(1, util.findSets(deck, deck.length, 1, null));
+    }
+
+    @Test
+    void findSets_PrimitiveWithoutCompletion() {
+        // sets of 4 cards are found by walking the combinations
+        UtilImpl fours = new UtilImpl(config(4, 2));
+        int[] deck = IntStream.range(0, 16).toArray();
+        int[] buffer = new int[4];
+
+        // 4 sets with the same first feature, 4 with the same second feature and 4! with both features different
+        int found = fours.findSets(deck, deck.length, Integer.MAX_VALUE, null);
+        assertEquals(32, found);
+        assertEquals(found, fours.findSets(IntStream.range(0, 16).boxed().collect(Collectors.toList()), Integer.MAX_VALUE).size());
+        assertEquals(1, fours.findSets(deck, deck.length, 1, buffer));
+        assertTrue(fours.testSet(buffer));
+    }
+
+    private static void assertSameSets(List<int[]> expected, List<int[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i)
+            assertArrayEquals(expected.get(i), actual.get(i));
+    }
+
+    @Test
+    void findSetsInParallel_MatchesSequential() {
+        // a 3^6 deck, shuffled so that sets are spread across the whole search
+        UtilImpl large = new UtilImpl(config(3, 6));
+        List<Integer> shuffled = IntStream.range(0, 729).boxed().collect(Collectors.toList());
+        Collections.shuffle(shuffled, new Random(42));
+        int[] deck = shuffled.stream().mapToInt(Integer::intValue).toArray();
+
+        for (int count : new int[]{1, 5, 1000, Integer.MAX_VALUE})
+            assertSameSets(large.findSetsSequentially(deck, deck.length, count), large.findSetsInParallel(deck, deck.length, count));
+        assertEquals(729 * 728 / 6, large.findSets(deck, deck.length, Integer.MAX_VALUE, null));
+    }
+
+    @Test
+    void findSetsInParallel_MatchesSequentialWithoutCompletion() {
+        UtilImpl fours = new UtilImpl(config(4, 4));
+        int[] deck = IntStream.range(0, 256).map(i -> 255 - i).toArray();
+
+        for (int count : new int[]{1, 100, Integer.MAX_VALUE})
+            assertSameSets(fours.findSetsSequentially(deck, 64, count), fours.findSetsInParallel(deck, 64, count));
+    }
+}
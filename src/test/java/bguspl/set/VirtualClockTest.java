@@ -0,0 +1,107 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class VirtualClockTest {
+
+    @Test
+    void sleep_FastForwards() {
+        VirtualClock clock = new VirtualClock(1000, 0);
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> clock.sleep(60_000));
+        assertEquals(61_000, clock.currentTimeMillis());
+    }
+
+    @Test
+    void sleep_ConcurrentSleepersReachTheirDeadlines() {
+        VirtualClock clock = new VirtualClock(0, 0);
+        List<Boolean> onTime = new CopyOnWriteArrayList<>();
+        Thread[] sleepers = new Thread[8];
+        for (int i = 0; i < sleepers.length; i++) {
+            long duration = 1000L * (sleepers.length - i);
+            sleepers[i] = new Thread(() -> {
+                try {
+                    for (int n = 0; n < 100; n++) {
+                        long start = clock.currentTimeMillis();
+                        clock.sleep(duration);
+                        onTime.add(clock.currentTimeMillis() >= start + duration);
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (Thread sleeper : sleepers) sleeper.start();
+            for (Thread sleeper : sleepers) sleeper.join();
+        });
+
+        assertEquals(sleepers.length * 100, onTime.size());
+        assertFalse(onTime.contains(false));
+    }
+
+    @Test
+    void poll_TimesOutInVirtualTime() throws InterruptedException {
+        VirtualClock clock = new VirtualClock(0, 0);
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        assertNull(clock.poll(queue, 5000));
+        assertEquals(5000, clock.currentTimeMillis());
+
+        queue.add(7);
+        assertEquals(7, clock.poll(queue, 5000));
+        assertEquals(5000, clock.currentTimeMillis());
+    }
+
+    @Test
+    void poll_ReturnsAnElementOfferedDuringTheVirtualWait() throws InterruptedException {
+        VirtualClock clock = new VirtualClock(0, 1000);
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        Thread offerer = new Thread(() -> {
+            try {
+                clock.sleep(1000);
+                queue.add(7);
+                clock.sleep(10_000);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        offerer.setDaemon(true);
+
+        synchronized (clock) { // the offerer can only get to the clock once the poll waits on it
+            offerer.start();
+            assertEquals(7, clock.poll(queue, 5000));
+            assertEquals(1000, clock.currentTimeMillis());
+        }
+        offerer.interrupt();
+    }
+
+    @Test
+    void schedule_RunsTasksInVirtualTimeOrder() throws InterruptedException {
+        VirtualClock clock = new VirtualClock(0, 0);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            LinkedBlockingQueue<String> ran = new LinkedBlockingQueue<>();
+            synchronized (clock) { // schedule both before the timer thread can move the clock
+                clock.schedule(executor, () -> ran.add("later"), 5000);
+                clock.schedule(executor, () -> ran.add("sooner"), 2000);
+            }
+
+            // nobody else sleeps on the clock, so the timer fast-forwards it on its own
+            assertEquals("sooner", ran.poll(5, TimeUnit.SECONDS));
+            assertEquals("later", ran.poll(5, TimeUnit.SECONDS));
+            assertEquals(5000, clock.currentTimeMillis());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActionRingTest {
+
+    @Test
+    void offer_DropsWhenFull() {
+        ActionRing ring = new ActionRing(3);
+        assertTrue(ring.offer(4));
+        assertTrue(ring.offer(7));
+        assertTrue(ring.offer(1));
+        assertFalse(ring.offer(9));
+        assertEquals(1, ring.dropped());
+        assertEquals(3, ring.size());
+
+        assertEquals(4, ring.poll());
+        assertTrue(ring.offer(9));
+        assertEquals(7, ring.poll());
+        assertEquals(1, ring.poll());
+        assertEquals(9, ring.poll());
+        assertEquals(ActionRing.EMPTY, ring.poll());
+    }
+
+    @Test
+    void poll_KeepsThePressTime() {
+        ActionRing ring = new ActionRing(3);
+        ring.offer(5, 1234L);
+        ring.offer(6, 5678L);
+        assertEquals(5, ring.poll());
+        assertEquals(1234L, ring.pressedAt());
+        assertEquals(6, ring.poll());
+        assertEquals(5678L, ring.pressedAt());
+    }
+
+    @Test
+    void clear_SkipsEverythingOffered() {
+        ActionRing ring = new ActionRing(3);
+        ring.offer(1);
+        ring.offer(2);
+        ring.clear();
+        assertTrue(ring.isEmpty());
+        assertEquals(ActionRing.EMPTY, ring.poll());
+
+        // the whole capacity is available again
+        for (int slot = 3; slot < 6; slot++)
+            assertTrue(ring.offer(slot));
+        assertEquals(3, ring.poll());
+    }
+
+    @Test
+    void take_ParksUntilOffered() {
+        ActionRing ring = new ActionRing(3);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            Thread producer = new Thread(() -> {
+                for (int slot = 0; slot < 10_000; slot++)
+                    while (!ring.offer(slot % 12))
+                        Thread.yield();
+            });
+            producer.start();
+            for (int slot = 0; slot < 10_000; slot++)
+                assertEquals(slot % 12, ring.take());
+            producer.join();
+        });
+    }
+
+    @Test
+    void take_ThrowsWhenInterrupted() {
+        ActionRing ring = new ActionRing(3);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            Thread consumer = new Thread(() -> assertThrows(InterruptedException.class, ring::take));
+            consumer.setUncaughtExceptionHandler((thread, e) -> thrown.set(e));
+            consumer.start();
+            consumer.interrupt();
+            consumer.join();
+        });
+        assertNull(thrown.get());
+    }
+}
@@ -0,0 +1,69 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.Util;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@ExtendWith(MockitoExtension.class)
+class ClaimTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Util util;
+    @Mock
+    private Dealer dealer;
+    @Mock
+    private Logger logger;
+
+    private Player[] players;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config(logger, (String) null);
+        Env env = new Env(logger, config, ui, util);
+        Table table = new Table(env);
+        players = new Player[3];
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, false);
+    }
+
+    private Claim claim(int player, long arrivalNanos) {
+        return new Claim(players[player], arrivalNanos, new int[0], new long[0], 0, false, false);
+    }
+
+    @Test
+    void arrivalOrder_EarliestPressFirstRegardlessOfSubmission() {
+        PriorityBlockingQueue<Claim> claims = new PriorityBlockingQueue<>(11, Claim.ARRIVAL_ORDER);
+        Claim late = claim(0, 300), early = claim(2, 100), tie = claim(1, 100);
+        claims.add(late);
+        claims.add(early);
+        claims.add(tie);
+
+        assertSame(tie, claims.poll());
+        assertSame(early, claims.poll());
+        assertSame(late, claims.poll());
+    }
+
+    @Test
+    void arrivalOrder_SurvivesNanoTimeOverflow() {
+        PriorityBlockingQueue<Claim> claims = new PriorityBlockingQueue<>(11, Claim.ARRIVAL_ORDER);
+        Claim after = claim(0, Long.MIN_VALUE + 5), before = claim(1, Long.MAX_VALUE - 5);
+        claims.add(after);
+        claims.add(before);
+
+        assertSame(before, claims.poll());
+        assertSame(after, claims.poll());
+    }
+}
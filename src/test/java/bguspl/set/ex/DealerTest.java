@@ -0,0 +1,179 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.Util;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DealerTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Logger logger;
+
+    private Util util;
+    private Table table;
+    private Player player;
+    private Dealer dealer;
+
+    /**
+     * The verdicts the dealer applied, as "player:legal".
+     */
+    private final List<String> verdicts = new ArrayList<>();
+
+    /**
+     * Run once when a claim's cards are next read (what the dealer does while the claiming thread reads them).
+     */
+    private Runnable duringRead;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("TableDelaySeconds", "0");
+        properties.put("PlayerKeys1", "");
+        properties.put("PlayerKeys2", "");
+        Config config = new Config(logger, properties);
+        util = spy(new UtilImpl(config));
+        Env env = new Env(logger, config, ui, util);
+
+        // cards 0, 1 and 2 (0000, 0001, 0002) in slots 0, 1 and 3 are the only set; card 3 (0010) is in slot 2
+        Integer[] slotToCard = new Integer[config.tableSize];
+        Integer[] cardToSlot = new Integer[config.deckSize];
+        int[] cards = {0, 1, 3, 2};
+        for (int slot = 0; slot < cards.length; slot++) {
+            slotToCard[slot] = cards[slot];
+            cardToSlot[cards[slot]] = slot;
+        }
+        table = new Table(env, slotToCard, cardToSlot) {
+            @Override
+            public long read(int[] slots, int[] cards, long[] versions) {
+                Runnable race = duringRead;
+                duringRead = null;
+                if (race != null)
+                    race.run();
+                return super.read(slots, cards, versions);
+            }
+        };
+
+        Player[] players = new Player[1];
+        dealer = new Dealer(env, table, players);
+        player = players[0] = new Player(env, dealer, table, 0, false);
+        dealer.setClaimListener((id, legal, latencyNanos) -> verdicts.add(id + ":" + legal));
+    }
+
+    /**
+     * Places the player's tokens on the slots and submits the claim, the way the player thread does.
+     */
+    private void claim(int... slots) {
+        for (int slot : slots)
+            table.placeToken(player.id, slot);
+        player.checkMe = true;
+        dealer.submitClaim(player, System.nanoTime());
+    }
+
+    @Test
+    void removeCardsFromTable_CurrentClaimIsJudged() {
+        claim(0, 1, 3);
+        dealer.removeCardsFromTable();
+
+        assertEquals(1, player.score());
+        assertEquals(1, verdicts.size());
+        assertEquals("0:true", verdicts.get(0));
+        assertFalse(table.hasCard(0));
+        assertFalse(table.hasCard(1));
+        assertFalse(table.hasCard(3));
+        assertFalse(player.checkMe);
+    }
+
+    @Test
+    void removeCardsFromTable_StaleClaimIsRejectedWithoutPointOrPenalty() {
+        long epoch = table.epoch();
+        claim(0, 1, 3);
+
+        // the dealer replaced a claimed card before it got to the claim
+        table.removeCard(0);
+        table.placeCard(4, 0);
+        assertTrue(table.epoch() != epoch);
+
+        dealer.removeCardsFromTable();
+
+        assertEquals(0, player.score());
+        assertFalse(player.isFrozen());
+        assertTrue(verdicts.isEmpty());
+        assertTrue(table.hasCard(1));
+        assertTrue(table.hasCard(3));
+        assertFalse(player.checkMe); // released all the same
+    }
+
+    @Test
+    void removeCardsFromTable_ClaimOnACardTakenWhileItWasReadIsStale() {
+        // an earlier claim on card 0 was applied after the player's tokens were read, but before its cards were
+        duringRead = () -> {
+            table.removeTokens(0);
+            table.removeCard(0);
+        };
+        claim(0, 1, 3);
+        dealer.removeCardsFromTable();
+
+        assertEquals(0, player.score());
+        assertFalse(player.isFrozen()); // not penalized for the missing card
+        assertTrue(verdicts.isEmpty());
+        assertFalse(player.checkMe);
+    }
+
+    @Test
+    void removeCardsFromTable_ClaimOnACardReplacedWhileItWasReadIsStale() {
+        // as above, and card 7 (0021) was dealt in its place: with cards 3 and 2 it forms a set the player never chose
+        duringRead = () -> {
+            table.removeTokens(0);
+            table.removeCard(0);
+            table.placeCard(7, 0);
+        };
+        claim(0, 2, 3);
+        dealer.removeCardsFromTable();
+
+        assertEquals(0, player.score());
+        assertFalse(player.isFrozen());
+        assertTrue(verdicts.isEmpty());
+        assertEquals(7, table.cardAt(0));
+        assertFalse(player.checkMe);
+    }
+
+    @Test
+    void removeCardsFromTable_AppliesTheVerdictOfTheSubmittingThread() {
+        // cards 0, 1 and 3 are not a set, but the verdict reached when the claim was submitted says they are
+        doReturn(true).when(util).testSet(any());
+        claim(0, 1, 2);
+        clearInvocations(util);
+
+        dealer.removeCardsFromTable();
+
+        verify(util, times(0)).testSet(any()); // not judged again on the dealer thread
+        assertEquals(1, player.score());
+        assertEquals("0:true", verdicts.get(0));
+        assertFalse(table.hasCard(2));
+    }
+}
@@ -0,0 +1,64 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeckTest {
+
+    private static int[] drawAll(Deck deck) {
+        int[] drawn = new int[deck.size()];
+        for (int i = 0; i < drawn.length; i++)
+            drawn[i] = deck.draw();
+        return drawn;
+    }
+
+    @Test
+    void draw_EveryCardOnce() {
+        Deck deck = new Deck(81, null);
+        assertEquals(81, deck.size());
+
+        int[] drawn = drawAll(deck);
+        assertTrue(deck.isEmpty());
+        Arrays.sort(drawn);
+        for (int card = 0; card < drawn.length; card++)
+            assertEquals(card, drawn[card]);
+    }
+
+    @Test
+    void add_ReturnedCardsCanBeDrawnAgain() {
+        Deck deck = new Deck(12, null);
+        int first = deck.draw(), second = deck.draw();
+        assertEquals(10, deck.size());
+
+        deck.add(first);
+        deck.add(second);
+        assertEquals(12, deck.size());
+        int[] drawn = drawAll(deck);
+        Arrays.sort(drawn);
+        assertEquals(0, drawn[0]);
+        assertEquals(11, drawn[11]);
+    }
+
+    @Test
+    void seed_SameOrder() {
+        assertArrayEquals(drawAll(new Deck(81, 7L)), drawAll(new Deck(81, 7L)));
+        assertFalse(Arrays.equals(drawAll(new Deck(81, 7L)), drawAll(new Deck(81, 8L))));
+    }
+
+    @Test
+    void peek_NextCardsInDrawOrder() {
+        Deck deck = new Deck(5, 3L);
+        int[] next = new int[3];
+        assertEquals(3, deck.peek(next));
+        assertEquals(5, deck.size());
+        assertArrayEquals(next, new int[]{deck.draw(), deck.draw(), deck.draw()});
+
+        assertEquals(2, deck.peek(next));
+    }
+}
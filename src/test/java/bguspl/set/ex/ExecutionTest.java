@@ -0,0 +1,67 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Util util;
+    @Mock
+    private Logger logger;
+
+    private Execution execution(String model) {
+        Properties properties = new Properties();
+        properties.setProperty("ThreadModel", model);
+        return new Execution(new Env(logger, new Config(logger, properties), ui, util));
+    }
+
+    private static void assertRuns(Execution execution) throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        Thread thread = execution.newThread(ran::countDown, "player0");
+        assertEquals("player0", thread.getName());
+        thread.start();
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void platformAndVirtual_RunEachLoopOnItsOwnThread() throws InterruptedException {
+        for (String model : new String[]{"platform", "virtual"}) {
+            Execution execution = execution(model);
+            assertNull(execution.botPool());
+            assertRuns(execution); // virtual threads fall back to platform threads before Java 21
+        }
+    }
+
+    @Test
+    void pooled_RunsBotsOnASharedPool() throws InterruptedException {
+        Execution execution = execution("pooled");
+        assertNotNull(execution.botPool());
+        CountDownLatch ran = new CountDownLatch(3);
+        execution.botPool().scheduleWithFixedDelay(ran::countDown, 0, 1, TimeUnit.MILLISECONDS);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertRuns(execution);
+
+        execution.shutdown();
+        assertTrue(execution.botPool().awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,61 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.Util;
+import bguspl.set.VirtualClock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FreezeTickerTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Util util;
+    @Mock
+    private Table table;
+    @Mock
+    private Dealer dealer;
+    @Mock
+    private Logger logger;
+
+    @Test
+    void countsDownToTheDeadline() throws InterruptedException {
+        VirtualClock clock = new VirtualClock(0, 0);
+        Env env = new Env(logger, new Config(logger, (String) null), ui, util, clock);
+        Player player = new Player(env, dealer, table, 0, false);
+        FreezeTicker ticker = new FreezeTicker(env, new Player[]{player});
+
+        // a freeze that is not a whole number of ticks (the default tick is a second)
+        player.frozenUntil = 2500;
+        assertTrue(player.isFrozen());
+        ticker.add(player);
+        Thread thread = new Thread(ticker);
+        thread.start();
+
+        verify(ui, timeout(5000)).setFreeze(0, 0);
+        InOrder order = inOrder(ui);
+        order.verify(ui).setFreeze(0, 1500);
+        order.verify(ui).setFreeze(0, 500);
+        order.verify(ui).setFreeze(0, 0);
+        assertFalse(player.isFrozen());
+
+        ticker.terminate();
+        thread.interrupt();
+        thread.join();
+    }
+}
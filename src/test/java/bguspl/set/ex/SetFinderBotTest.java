@@ -0,0 +1,102 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.UtilImpl;
+import bguspl.set.VirtualClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@ExtendWith(MockitoExtension.class)
+class SetFinderBotTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Dealer dealer;
+    @Mock
+    private Logger logger;
+
+    private Table table;
+    private Player player;
+    private SetFinderBot bot;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config(logger, (String) null);
+        Env env = new Env(logger, config, ui, new UtilImpl(config));
+        table = table(env);
+        player = new Player(env, dealer, table, 0, false);
+        bot = new SetFinderBot(env, table, player);
+    }
+
+    private static Table table(Env env) {
+        Config config = env.config;
+        // cards 0, 1 and 2 (0000, 0001, 0002) are the only set; card 3 (0010) is not part of one
+        Integer[] slotToCard = new Integer[config.tableSize];
+        Integer[] cardToSlot = new Integer[config.deckSize];
+        int[] cards = {0, 1, 3, 2};
+        for (int slot = 0; slot < cards.length; slot++) {
+            slotToCard[slot] = cards[slot];
+            cardToSlot[cards[slot]] = slot;
+        }
+        return new Table(env, slotToCard, cardToSlot);
+    }
+
+    @Test
+    void nextSlot_LiftsStrayTokensThenPressesTheSet() throws InterruptedException {
+        table.placeToken(player.id, 2); // a token on card 3
+        assertEquals(2, bot.nextSlot());
+
+        table.removeToken(player.id, 2);
+        int[] pressed = new int[3];
+        for (int i = 0; i < pressed.length; i++) {
+            pressed[i] = bot.nextSlot();
+            table.placeToken(player.id, pressed[i]);
+        }
+        Arrays.sort(pressed);
+        assertArrayEquals(new int[]{0, 1, 3}, pressed);
+        assertEquals(BotStrategy.NONE, bot.nextSlot());
+    }
+
+    @Test
+    void nextSlot_WaitsForQueuedPresses() throws InterruptedException {
+        player.actions.offer(0);
+        assertEquals(BotStrategy.NONE, bot.nextSlot());
+    }
+
+    @Test
+    void nextSlot_HumanLikeBotReactsWithoutBlocking() throws InterruptedException {
+        Properties properties = new Properties();
+        properties.put("BotReactionSeconds", "2");
+        properties.put("BotReactionDeviationSeconds", "0");
+        properties.put("PlayerKeys1", "");
+        properties.put("PlayerKeys2", "");
+        Config config = new Config(logger, properties);
+        VirtualClock clock = new VirtualClock(0, 0);
+        Env env = new Env(logger, config, ui, new UtilImpl(config), clock);
+        Table table = table(env);
+        Player player = new Player(env, dealer, table, 0, false);
+        HumanLikeBot bot = new HumanLikeBot(env, table, player);
+
+        // still reacting: nothing to press, and the game time did not move
+        assertEquals(BotStrategy.NONE, bot.nextSlot());
+        assertEquals(2000, bot.readyAt());
+        assertEquals(0, clock.currentTimeMillis());
+
+        clock.sleep(bot.readyAt() - clock.currentTimeMillis());
+        assertNotEquals(BotStrategy.NONE, bot.nextSlot());
+    }
+}
@@ -4,6 +4,7 @@ import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.UtilImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -11,13 +12,21 @@ import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TableTest {
 
     Table table;
     private Integer[] slotToCard;
     private Integer[] cardToSlot;
+    private Config config;
+    private MockLogger logger;
 
     @BeforeEach
     void setUp() {
@@ -30,8 +39,8 @@ class TableTest {
         properties.put("TableDelaySeconds", "0");
         properties.put("PlayerKeys1", "81,87,69,82");
         properties.put("PlayerKeys2", "85,73,79,80");
-        MockLogger logger = new MockLogger();
-        Config config = new Config(logger, properties);
+        logger = new MockLogger();
+        config = new Config(logger, properties);
         slotToCard = new Integer[config.tableSize];
         cardToSlot = new Integer[config.deckSize];
 
@@ -95,14 +104,191 @@ class TableTest {
         placeSomeCardsAndAssert();
     }
 
+    private Table tableWithSetRules() {
+        Env env = new Env(logger, config, new MockUserInterface(), new UtilImpl(config));
+        return new Table(env);
+    }
+
+    @Test
+    void sets_NoCardsOnTable() {
+        Table table = tableWithSetRules();
+
+        assertFalse(table.hasSet());
+        assertEquals(0, table.setCount());
+        assertFalse(table.sets().hasNext());
+    }
+
+    @Test
+    void sets_PlacingTheThirdCardCompletesASet() {
+        Table table = tableWithSetRules();
+        table.placeCard(40, 0);
+        table.placeCard(3, 1);
+        table.placeCard(0, 2);
+        assertFalse(table.hasSet());
+
+        // 0000, 1111, 2222
+        table.placeCard(80, 3);
+        assertTrue(table.hasSet());
+        assertEquals(1, table.setCount());
+        assertArrayEquals(new int[]{0, 40, 80}, table.sets().next());
+    }
+
+    @Test
+    void sets_RemovingACardBreaksItsSets() {
+        Table table = tableWithSetRules();
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(2, 2);
+        table.placeCard(3, 3);
+        assertEquals(1, table.setCount());
+
+        table.removeCard(1);
+        assertFalse(table.hasSet());
+    }
+
+    @Test
+    void sets_IndexedFromPrefilledSlots() {
+        Integer[] slots = {0, 1, 2, null};
+        Integer[] cards = new Integer[config.deckSize];
+        for (int slot = 0; slot < 3; slot++)
+            cards[slots[slot]] = slot;
+
+        Table table = new Table(new Env(logger, config, new MockUserInterface(), new UtilImpl(config)), slots, cards);
+        assertEquals(1, table.setCount());
+    }
+
+    @Test
+    void placeCard_ReplacedCardLeavesTheTable() {
+        Table table = tableWithSetRules();
+        table.placeCards(new int[]{0, 1, 3, 2}, new int[]{0, 1, 2, 3});
+        assertEquals(1, table.setCount());
+
+        table.placeCard(5, 3); // replaces card 2, breaking the set
+        assertNull(table.cardToSlot[2]);
+        assertFalse(table.hasSet());
+
+        table.placeCard(2, 2); // replaces card 3, completing it again
+        assertNull(table.cardToSlot[3]);
+        assertEquals(2, (int) table.cardToSlot[2]);
+        assertEquals(1, table.setCount());
+        assertArrayEquals(new int[]{0, 1, 2}, table.sets().next());
+    }
+
+    @Test
+    void placeCards_AllCardsPlacedAndIndexed() {
+        Table table = tableWithSetRules();
+        table.placeCards(new int[]{0, 1, 2, 3}, new int[]{3, 2, 1, 0});
+
+        assertEquals(4, table.countCards());
+        assertEquals(3, (int) table.slotToCard[0]);
+        assertEquals(3, (int) table.cardToSlot[0]);
+        assertEquals(1, table.setCount());
+    }
+
+    @Test
+    void clearTable_NoCardsOrSetsLeft() {
+        Table table = tableWithSetRules();
+        table.placeCards(new int[]{0, 1, 2, 3}, new int[]{0, 1, 2, 3});
+        table.clearTable();
+
+        assertEquals(0, table.countCards());
+        assertFalse(table.hasSet());
+        for (int card = 0; card < 4; card++)
+            assertNull(table.cardToSlot[card]);
+    }
+
+    @Test
+    void snapshot_CopiesCardsVersionsAndEpoch() {
+        Table table = tableWithSetRules();
+        long epoch = table.epoch();
+        table.placeCards(new int[]{0, 1, 2}, new int[]{0, 1, 2});
+
+        int[] cards = new int[config.tableSize];
+        long[] versions = new long[config.tableSize];
+        assertEquals(epoch + 1, table.snapshot(cards, versions));
+        assertArrayEquals(new int[]{0, 1, 2, Table.NO_CARD}, cards);
+        assertEquals(table.version(0), versions[0]);
+        assertEquals(table.version(3), versions[3]);
+    }
+
+    @Test
+    void isCurrent_ReplacedCardMakesVersionsStale() {
+        Table table = tableWithSetRules();
+        table.placeCards(new int[]{0, 1, 2}, new int[]{0, 1, 2});
+        int[] slots = {0, 1, 2};
+        long[] versions = {table.version(0), table.version(1), table.version(2)};
+        assertTrue(table.isCurrent(slots, versions));
+
+        table.removeCard(1);
+        assertFalse(table.hasCard(1));
+        assertFalse(table.isCurrent(slots, versions));
+
+        // putting the same card back does not revive the old claim
+        table.placeCard(1, 1);
+        assertEquals(1, table.cardAt(1));
+        assertFalse(table.isCurrent(slots, versions));
+    }
+
+    @Test
+    void isCurrent_OtherSlotsDoNotMatter() {
+        Table table = tableWithSetRules();
+        table.placeCards(new int[]{0, 1, 2, 3}, new int[]{0, 1, 2, 3});
+        int[] slots = {0, 1, 2};
+        long[] versions = {table.version(0), table.version(1), table.version(2)};
+
+        table.removeCard(3);
+        assertTrue(table.isCurrent(slots, versions));
+    }
+
+    @Test
+    void read_CopiesTheGivenSlots() {
+        Table table = tableWithSetRules();
+        table.placeCards(new int[]{0, 1, 2}, new int[]{0, 1, 2});
+
+        int[] cards = new int[2];
+        long[] versions = new long[2];
+        assertEquals(table.epoch(), table.read(new int[]{2, 3}, cards, versions));
+        assertArrayEquals(new int[]{2, Table.NO_CARD}, cards);
+        assertArrayEquals(new long[]{table.version(2), table.version(3)}, versions);
+    }
+
+    @Test
+    void snapshot_SharedUntilTheTableChanges() {
+        Table table = tableWithSetRules();
+        table.placeCards(new int[]{0, 1, 2, 3}, new int[]{0, 1, 2, 3});
+
+        TableSnapshot snapshot = table.snapshot();
+        assertSame(snapshot, table.snapshot());
+        assertEquals(table.epoch(), snapshot.epoch());
+        assertEquals(4, snapshot.cardCount());
+        assertEquals(1, snapshot.sets().size());
+        assertArrayEquals(new int[]{0, 1, 2}, snapshot.sets().get(0));
+        assertEquals(3, snapshot.slotOf(3));
+
+        table.removeCard(1);
+        TableSnapshot next = table.snapshot();
+        assertNotSame(snapshot, next);
+        assertEquals(Table.NO_CARD, next.cardAt(1));
+        assertEquals(-1, next.slotOf(1));
+        assertTrue(next.sets().isEmpty());
+
+        // the old snapshot is unaffected
+        assertEquals(1, snapshot.cardAt(1));
+        assertEquals(1, snapshot.sets().size());
+    }
+
     static class MockUserInterface implements UserInterface {
         @Override
         public void dispose() {}
         @Override
         public void placeCard(int card, int slot) {}
         @Override
+        public void placeCards(int[] cards, int[] slots) {}
+        @Override
         public void removeCard(int slot) {}
         @Override
+        public void removeCards() {}
+        @Override
         public void setCountdown(long millies, boolean warn) {}
         @Override
         public void setElapsed(long millies) {}
@@ -138,11 +324,21 @@ class TableTest {
             return false;
         }
 
+        @Override
+        public int thirdCard(int first, int second) {
+            return -1;
+        }
+
         @Override
         public List<int[]> findSets(List<Integer> deck, int count) {
             return null;
         }
 
+        @Override
+        public int findSets(int[] deck, int length, int count, int[] sets) {
+            return 0;
+        }
+
         @Override
         public void spin() {}
     }